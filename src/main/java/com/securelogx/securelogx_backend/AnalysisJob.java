@@ -0,0 +1,120 @@
+package com.securelogx.securelogx_backend;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * An analysis submitted to run in the background.
+ *
+ * Status fields are written by the worker thread and read by status
+ * polls, so they are volatile; counters live in {@link AnalysisProgress}.
+ */
+public class AnalysisJob {
+
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String jobId;
+    private final String owner;
+    private final String logPath;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AnalysisProgress progress = new AnalysisProgress();
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    private volatile Collection<Incident> incidents;
+
+    public AnalysisJob(String jobId, String owner, String logPath) {
+        this.jobId = jobId;
+        this.owner = owner;
+        this.logPath = logPath;
+    }
+
+    // ================= LIFECYCLE =================
+
+    void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = JobStatus.RUNNING;
+    }
+
+    void markCompleted(Collection<Incident> incidents) {
+        this.incidents = incidents;
+        finishedAt = LocalDateTime.now();
+        status = JobStatus.COMPLETED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finishedAt = LocalDateTime.now();
+        status = JobStatus.FAILED;
+    }
+
+    public boolean isFinished() {
+        JobStatus current = status;
+        return current == JobStatus.COMPLETED || current == JobStatus.FAILED;
+    }
+
+    // ================= THROUGHPUT =================
+
+    /**
+     * Average lines per second since the job started, 0 while queued.
+     */
+    public long getLinesPerSecond() {
+        LocalDateTime started = startedAt;
+        if (started == null) {
+            return 0;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(started, end).toMillis());
+        return progress.getLinesProcessed() * 1000 / millis;
+    }
+
+    // ================= GETTERS =================
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getLogPath() {
+        return logPath;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public AnalysisProgress getProgress() {
+        return progress;
+    }
+
+    public Collection<Incident> getIncidents() {
+        return incidents;
+    }
+}
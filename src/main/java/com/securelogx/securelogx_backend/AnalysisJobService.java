@@ -0,0 +1,109 @@
+package com.securelogx.securelogx_backend;
+
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs analyses off the request threads.
+ *
+ * The executor has a fixed number of workers and a bounded queue; once
+ * both are full, {@link #submit} throws {@link RejectedExecutionException}
+ * instead of letting work pile up.
+ */
+@Service
+public class AnalysisJobService {
+
+    private final SecureLogXService service;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor executor;
+
+    public AnalysisJobService(SecureLogXService service) {
+        this.service = service;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                Config.getAnalysisWorkerThreads(),
+                Config.getAnalysisWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Config.getAnalysisQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(
+                            runnable, "securelogx-analysis-" + threadCount.incrementAndGet()
+                    );
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Queues an analysis of {@code logPath} and returns immediately.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public AnalysisJob submit(String logPath, String owner) {
+        if (logPath == null || logPath.isBlank()) {
+            throw new IllegalArgumentException("Log path is required");
+        }
+        purgeFinishedJobs();
+
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), owner, logPath);
+        jobs.put(job.getJobId(), job);
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getJobId());
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Returns the job if it exists and belongs to {@code owner}.
+     */
+    public AnalysisJob getJob(String jobId, String owner) {
+        AnalysisJob job = jobs.get(jobId);
+        if (job == null || !job.getOwner().equals(owner)) {
+            throw new IllegalArgumentException("Job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(AnalysisJob job) {
+        job.markRunning();
+        try {
+            job.markCompleted(service.analyzeAndReturnIncidents(
+                    job.getLogPath(),
+                    job.getOwner(),
+                    true,
+                    job.getProgress()
+            ));
+        } catch (Exception e) {
+            job.markFailed(e.getMessage());
+        } catch (Error e) {
+            // Pollers must see the job end even if the worker cannot go on
+            job.markFailed(e.toString());
+            throw e;
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now()
+                .minusMinutes(Config.getAnalysisJobRetentionMinutes());
+        jobs.values().removeIf(job ->
+                job.isFinished() && job.getFinishedAt().isBefore(cutoff)
+        );
+    }
+}
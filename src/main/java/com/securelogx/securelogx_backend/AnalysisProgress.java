@@ -0,0 +1,48 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters for a running analysis, safe to read from other threads.
+ * Writers publish in batches, so readers see slightly stale values.
+ */
+public class AnalysisProgress {
+
+    private final AtomicLong bytesTotal = new AtomicLong(-1);
+    private final AtomicLong bytesProcessed = new AtomicLong();
+    private final AtomicLong linesProcessed = new AtomicLong();
+    private final AtomicInteger incidentsFound = new AtomicInteger();
+
+    /**
+     * Expected input size, or -1 when unknown (compressed or streamed input).
+     */
+    public void setBytesTotal(long bytes) {
+        bytesTotal.set(bytes);
+    }
+
+    public void addProcessed(long lines, long bytes) {
+        linesProcessed.addAndGet(lines);
+        bytesProcessed.addAndGet(bytes);
+    }
+
+    public void setIncidentsFound(int incidents) {
+        incidentsFound.set(incidents);
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal.get();
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed.get();
+    }
+
+    public long getLinesProcessed() {
+        return linesProcessed.get();
+    }
+
+    public int getIncidentsFound() {
+        return incidentsFound.get();
+    }
+}
@@ -0,0 +1,65 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters for the artifact pipeline: how much the codec
+ * saves and what each stage costs. Updated once per segment.
+ */
+public final class ArtifactMetrics {
+
+    private static final AtomicLong SEGMENTS_WRITTEN = new AtomicLong();
+    private static final AtomicLong SEGMENTS_STORED_RAW = new AtomicLong();
+    private static final AtomicLong PLAIN_BYTES_WRITTEN = new AtomicLong();
+    private static final AtomicLong STORED_BYTES_WRITTEN = new AtomicLong();
+    private static final AtomicLong COMPRESS_NANOS = new AtomicLong();
+    private static final AtomicLong ENCRYPT_NANOS = new AtomicLong();
+
+    private static final AtomicLong SEGMENTS_READ = new AtomicLong();
+    private static final AtomicLong DECRYPT_NANOS = new AtomicLong();
+    private static final AtomicLong DECOMPRESS_NANOS = new AtomicLong();
+
+    private ArtifactMetrics() {}
+
+    static void recordWrite(int plainBytes, int storedBytes, boolean compressed,
+                            long compressNanos, long encryptNanos) {
+        SEGMENTS_WRITTEN.incrementAndGet();
+        if (!compressed) {
+            SEGMENTS_STORED_RAW.incrementAndGet();
+        }
+        PLAIN_BYTES_WRITTEN.addAndGet(plainBytes);
+        STORED_BYTES_WRITTEN.addAndGet(storedBytes);
+        COMPRESS_NANOS.addAndGet(compressNanos);
+        ENCRYPT_NANOS.addAndGet(encryptNanos);
+    }
+
+    static void recordRead(long decryptNanos, long decompressNanos) {
+        SEGMENTS_READ.incrementAndGet();
+        DECRYPT_NANOS.addAndGet(decryptNanos);
+        DECOMPRESS_NANOS.addAndGet(decompressNanos);
+    }
+
+    /**
+     * Totals since startup; stage times are in milliseconds.
+     */
+    public static Map<String, Object> snapshot() {
+        long plain = PLAIN_BYTES_WRITTEN.get();
+        long stored = STORED_BYTES_WRITTEN.get();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("codec", Config.getArtifactCodec());
+        metrics.put("segmentsWritten", SEGMENTS_WRITTEN.get());
+        metrics.put("segmentsStoredRaw", SEGMENTS_STORED_RAW.get());
+        metrics.put("plainBytesWritten", plain);
+        metrics.put("storedBytesWritten", stored);
+        metrics.put("compressionRatio", stored > 0 ? (double) plain / stored : 1.0);
+        metrics.put("compressMillis", COMPRESS_NANOS.get() / 1_000_000);
+        metrics.put("encryptMillis", ENCRYPT_NANOS.get() / 1_000_000);
+        metrics.put("segmentsRead", SEGMENTS_READ.get());
+        metrics.put("decryptMillis", DECRYPT_NANOS.get() / 1_000_000);
+        metrics.put("decompressMillis", DECOMPRESS_NANOS.get() / 1_000_000);
+        return metrics;
+    }
+}
@@ -0,0 +1,447 @@
+package com.securelogx.securelogx_backend;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Read-only file of closed incidents, sorted by ID and memory-mapped.
+ *
+ * The file carries its own postings, so a cold incident takes no heap
+ * until it is read. Incidents are numbered by their place in ID order.
+ *
+ * Layout: magic "SLXC" | version (1) | count (4), then per incident
+ * length (4) | payload, then these sections, then the position (8) of
+ * each section in this order:
+ * <ul>
+ *   <li>offsets: position (8) of each incident</li>
+ *   <li>keys: risk score (4) | creation time in epoch nanos (8) of each incident</li>
+ *   <li>by time, by risk: incident numbers (4 each) in index order</li>
+ *   <li>by IP, by severity, by artifact: group count (4), the position
+ *       (4) of each group in name order, then per group name length (4) |
+ *       UTF-8 name | size (4) | incident numbers (4 each) by time</li>
+ * </ul>
+ * A payload is the incident in its own {@link IncidentCodec}, so its ID
+ * is the first string, followed by the number of other artifacts it is
+ * evidence in and their paths.
+ */
+final class ColdSegment {
+
+    static final byte[] MAGIC = {'S', 'L', 'X', 'C'};
+    static final int VERSION = 1;
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + 4;
+    private static final int SECTIONS = 7;
+    private static final int KEY_LENGTH = 4 + 8;
+
+    private static final int OFFSETS = 0;
+    private static final int KEYS = 1;
+    private static final int BY_TIME = 2;
+    private static final int BY_RISK = 3;
+    private static final int BY_IP = 4;
+    private static final int BY_SEVERITY = 5;
+    private static final int BY_ARTIFACT = 6;
+
+    private final long number;
+    private final Path path;
+    private final MappedByteBuffer map;
+    private final int count;
+    private final int[] sections;
+
+    private ColdSegment(long number, Path path, MappedByteBuffer map, int count, int[] sections) {
+        this.number = number;
+        this.path = path;
+        this.map = map;
+        this.count = count;
+        this.sections = sections;
+    }
+
+    static Path path(Path dir, long number) {
+        return dir.resolve(String.format("cold-%016d.seg", number));
+    }
+
+    static ColdSegment open(Path dir, long number) throws IOException {
+        Path path = path(dir, number);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH + SECTIONS * 8 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a cold incident segment: " + path);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] magic = new byte[MAGIC.length];
+            map.get(0, magic);
+            if (!Arrays.equals(magic, MAGIC) || map.get(MAGIC.length) != VERSION) {
+                throw new IOException("Not a cold incident segment: " + path);
+            }
+            int count = map.getInt(MAGIC.length + 1);
+            int footer = (int) size - SECTIONS * 8;
+            int[] sections = new int[SECTIONS];
+            long previous = HEADER_LENGTH;
+            for (int i = 0; i < SECTIONS; i++) {
+                long position = map.getLong(footer + i * 8);
+                if (position < previous || position > footer) {
+                    throw new IOException("Cold incident segment is incomplete: " + path);
+                }
+                sections[i] = (int) position;
+                previous = position;
+            }
+            if (count < 0
+                    || sections[KEYS] - sections[OFFSETS] != count * 8L
+                    || sections[BY_TIME] - sections[KEYS] != (long) count * KEY_LENGTH) {
+                throw new IOException("Cold incident segment is incomplete: " + path);
+            }
+            return new ColdSegment(number, path, map, count, sections);
+        }
+    }
+
+    long number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long sizeBytes() {
+        return map.capacity();
+    }
+
+    // ================= READS =================
+
+    /** Payload of incident {@code n}. */
+    ByteBuffer record(int n) {
+        int offset = (int) map.getLong(sections[OFFSETS] + n * 8);
+        return map.slice(offset + 4, map.getInt(offset));
+    }
+
+    String id(int n) {
+        return IncidentCodec.readFirstString(record(n));
+    }
+
+    /** Index key of incident {@code n}, read without decoding the incident. */
+    IncidentIndex.Key key(int n) {
+        int at = sections[KEYS] + n * KEY_LENGTH;
+        return new IncidentIndex.Key(map.getInt(at), map.getLong(at + 4), id(n));
+    }
+
+    /** Number of {@code incidentId}, or -1, by binary search. */
+    int find(String incidentId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = id(mid).compareTo(incidentId);
+            if (order == 0) {
+                return mid;
+            }
+            if (order < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    // ================= POSTINGS =================
+
+    Run byTime() {
+        return new Run(this, sections[BY_TIME], count);
+    }
+
+    Run byRisk() {
+        return new Run(this, sections[BY_RISK], count);
+    }
+
+    /** Only closed incidents move to the cold tier, and closed is final. */
+    Run byStatus(Incident.IncidentStatus status) {
+        return status == Incident.IncidentStatus.CLOSED ? byTime() : Run.EMPTY;
+    }
+
+    Run byIp(String ipAddress) {
+        return group(BY_IP, ipAddress);
+    }
+
+    Run bySeverity(String severityKey) {
+        return group(BY_SEVERITY, severityKey);
+    }
+
+    Run byArtifact(String artifactPath) {
+        return group(BY_ARTIFACT, artifactPath);
+    }
+
+    private Run group(int section, String name) {
+        int start = sections[section];
+        int low = 0;
+        int high = map.getInt(start) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int at = map.getInt(start + 4 + mid * 4);
+            byte[] bytes = new byte[map.getInt(at)];
+            map.get(at + 4, bytes);
+            int order = new String(bytes, StandardCharsets.UTF_8).compareTo(name);
+            if (order == 0) {
+                int sizeAt = at + 4 + bytes.length;
+                return new Run(this, sizeAt + 4, map.getInt(sizeAt));
+            }
+            if (order < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return Run.EMPTY;
+    }
+
+    /** Incident numbers of one posting, in index order. */
+    static final class Run {
+
+        static final Run EMPTY = new Run(null, 0, 0);
+
+        final ColdSegment segment;
+        private final int position;
+        private final int size;
+
+        private Run(ColdSegment segment, int position, int size) {
+            this.segment = segment;
+            this.position = position;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int i) {
+            return segment.map.getInt(position + i * 4);
+        }
+
+        IncidentIndex.Key key(int i) {
+            return segment.key(get(i));
+        }
+    }
+
+    // ================= RECORDS =================
+
+    static Incident incident(ByteBuffer record) {
+        return new IncidentCodec().readIncident(record.duplicate());
+    }
+
+    /** Every artifact the incident is evidence in, its own first. */
+    static List<String> artifacts(ByteBuffer record) {
+        ByteBuffer in = record.duplicate();
+        IncidentCodec codec = new IncidentCodec();
+        Incident incident = codec.readIncident(in);
+        List<String> artifacts = new ArrayList<>();
+        if (incident.getArtifactPath() != null) {
+            artifacts.add(incident.getArtifactPath());
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            artifacts.add(codec.readString(in));
+        }
+        return artifacts;
+    }
+
+    static byte[] encode(Incident incident, List<Incident.TimelineEvent> timeline, Collection<String> otherArtifacts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        IncidentCodec codec = new IncidentCodec();
+        try {
+            codec.writeIncident(out, incident, timeline);
+            out.writeInt(otherArtifacts.size());
+            for (String artifact : otherArtifacts) {
+                codec.writeString(out, artifact);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // ================= WRITING =================
+
+    /**
+     * Writes records, already in ID order, to a temporary file that
+     * becomes segment {@code number} on {@link #finish()}. What the
+     * postings need is kept per record until then.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path dir;
+        private final long number;
+        private final Path temp;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Entry> entries = new ArrayList<>();
+        private boolean finished;
+
+        Writer(Path dir, long number) throws IOException {
+            this.dir = dir;
+            this.number = number;
+            this.temp = dir.resolve(path(dir, number).getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_LENGTH);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        }
+
+        /** Bytes written so far, which is also the position of the next one. */
+        long size() {
+            return HEADER_LENGTH + (long) out.size();
+        }
+
+        void add(ByteBuffer record) throws IOException {
+            entries.add(new Entry(incident(record), artifacts(record)));
+            offsets.add(size());
+            byte[] payload = new byte[record.remaining()];
+            record.duplicate().get(payload);
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+
+        /** Writes the postings, makes the segment durable and visible, then maps it. */
+        ColdSegment finish() throws IOException {
+            int count = entries.size();
+            // Sorts are stable and start from ID order, which breaks the ties
+            Integer[] byTime = new Integer[count];
+            for (int n = 0; n < count; n++) {
+                byTime[n] = n;
+            }
+            Arrays.sort(byTime, Comparator.comparingLong((Integer n) -> entries.get(n).createdAt));
+            Integer[] byRisk = byTime.clone();
+            Arrays.sort(byRisk, Comparator.comparingInt((Integer n) -> entries.get(n).riskScore));
+
+            // Filled in time order, so every group is sorted by time too
+            Map<String, List<Integer>> byIp = new TreeMap<>();
+            Map<String, List<Integer>> bySeverity = new TreeMap<>();
+            Map<String, List<Integer>> byArtifact = new TreeMap<>();
+            for (int n : byTime) {
+                Entry entry = entries.get(n);
+                if (entry.ipAddress != null) {
+                    byIp.computeIfAbsent(entry.ipAddress, ip -> new ArrayList<>()).add(n);
+                }
+                if (entry.severityKey != null) {
+                    bySeverity.computeIfAbsent(entry.severityKey, s -> new ArrayList<>()).add(n);
+                }
+                for (String artifact : entry.artifacts) {
+                    byArtifact.computeIfAbsent(artifact, a -> new ArrayList<>()).add(n);
+                }
+            }
+
+            long[] sections = new long[SECTIONS];
+            sections[OFFSETS] = size();
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+            sections[KEYS] = size();
+            for (Entry entry : entries) {
+                out.writeInt(entry.riskScore);
+                out.writeLong(entry.createdAt);
+            }
+            sections[BY_TIME] = size();
+            for (int n : byTime) {
+                out.writeInt(n);
+            }
+            sections[BY_RISK] = size();
+            for (int n : byRisk) {
+                out.writeInt(n);
+            }
+            sections[BY_IP] = size();
+            writeGroups(out, sections[BY_IP], byIp);
+            sections[BY_SEVERITY] = size();
+            writeGroups(out, sections[BY_SEVERITY], bySeverity);
+            sections[BY_ARTIFACT] = size();
+            writeGroups(out, sections[BY_ARTIFACT], byArtifact);
+            for (long section : sections) {
+                out.writeLong(section);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH)
+                    .put(MAGIC).put((byte) VERSION).putInt(count).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            channel.close();
+            Files.move(temp, path(dir, number), StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+            return open(dir, number);
+        }
+
+        private static void writeGroups(DataOutputStream out, long start, Map<String, List<Integer>> groups)
+                throws IOException {
+            List<byte[]> names = new ArrayList<>(groups.size());
+            long at = start + 4 + groups.size() * 4L;
+            out.writeInt(groups.size());
+            for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+                byte[] name = group.getKey().getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                out.writeInt((int) at);
+                at += 4 + name.length + 4 + group.getValue().size() * 4L;
+            }
+            int i = 0;
+            for (List<Integer> members : groups.values()) {
+                byte[] name = names.get(i++);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeInt(members.size());
+                for (int n : members) {
+                    out.writeInt(n);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /** What the postings need of one written incident. */
+    private static final class Entry {
+
+        final int riskScore;
+        final long createdAt;
+        final String ipAddress;
+        final String severityKey;
+        final List<String> artifacts;
+
+        Entry(Incident incident, List<String> artifacts) {
+            IncidentIndex.Key key = IncidentIndex.Key.of(incident);
+            this.riskScore = key.riskScore;
+            this.createdAt = key.createdAt;
+            this.ipAddress = incident.getIpAddress();
+            this.severityKey = incident.getSeverity() == null
+                    ? null
+                    : IncidentIndex.severityKey(incident.getSeverity());
+            this.artifacts = artifacts;
+        }
+    }
+}
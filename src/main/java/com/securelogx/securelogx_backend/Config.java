@@ -1,5 +1,9 @@
 package com.securelogx.securelogx_backend;
 
+import com.securelogx.securelogx_backend.DetectionRule.SourceField;
+
+import java.util.List;
+
 public class Config {
 
     public static int getFailedAttemptThreshold() {
@@ -9,4 +13,195 @@ public class Config {
     public static int getTimeWindowMinutes() {
         return 5;
     }
+
+    /**
+     * Logs at least this large are analysed in parallel chunks.
+     */
+    public static long getParallelAnalysisThresholdBytes() {
+        return 64L * 1024 * 1024;
+    }
+
+    /**
+     * Threads used to inflate and scan the files of a rotated log set.
+     */
+    public static int getDecompressionThreads() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    }
+
+    /**
+     * Analysis jobs run on their own pool so they never hold request threads.
+     */
+    public static int getAnalysisWorkerThreads() {
+        return 2;
+    }
+
+    /**
+     * Jobs allowed to wait for a worker before new submits are rejected.
+     */
+    public static int getAnalysisQueueCapacity() {
+        return 8;
+    }
+
+    /**
+     * Suggested wait, sent as {@code Retry-After} when the job queue is full.
+     */
+    public static int getAnalysisRetryAfterSeconds() {
+        return 30;
+    }
+
+    /**
+     * Finished jobs are kept this long for status polling.
+     */
+    public static int getAnalysisJobRetentionMinutes() {
+        return 60;
+    }
+
+    /**
+     * PBKDF2-HMAC-SHA256 rounds used to turn a password into an AES key.
+     */
+    public static int getKeyDerivationIterations() {
+        return 600_000;
+    }
+
+    /**
+     * Derived keys kept in memory, and for how long after last use.
+     */
+    public static int getKeyCacheSize() {
+        return 256;
+    }
+
+    public static int getKeyCacheTtlMinutes() {
+        return 15;
+    }
+
+    /**
+     * Largest slice of a report returned by a single page request.
+     */
+    public static int getMaxReportPageBytes() {
+        return 4 * 1024 * 1024;
+    }
+
+    /**
+     * Workers used by {@link Vault} to encrypt and decrypt segments.
+     */
+    public static int getCryptoThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Average incident records per content-addressed evidence chunk. A
+     * changed incident rewrites its whole chunk; smaller chunks mean longer
+     * manifests.
+     */
+    public static int getEvidenceChunkSize() {
+        return 64;
+    }
+
+    /**
+     * Size at which the incident write-ahead log starts a new segment and
+     * the store takes a snapshot, bounding what a restart has to replay.
+     */
+    public static long getIncidentLogSegmentBytes() {
+        return 64L * 1024 * 1024;
+    }
+
+    /**
+     * Detections of the same source by the same rule within one window of
+     * this many hours (UTC-aligned) update a single incident.
+     */
+    public static int getIncidentDedupWindowHours() {
+        return 24;
+    }
+
+    /**
+     * Largest page an incident query may ask for.
+     */
+    public static int getMaxIncidentPageSize() {
+        return 500;
+    }
+
+    /**
+     * Index entries one incident query may examine before it returns a
+     * short page with a cursor, so sparse filters cannot scan the store.
+     */
+    public static int getIncidentQueryScanLimit() {
+        return 10_000;
+    }
+
+    /**
+     * Closed incidents with no timeline activity for this many days move
+     * from memory to read-only cold segments on disk.
+     */
+    public static int getColdIncidentAgeDays() {
+        String days = System.getProperty(
+                "securelogx.incidents.cold-after-days",
+                System.getenv().getOrDefault("SECURELOGX_INCIDENTS_COLD_AFTER_DAYS", "30")
+        );
+        return Integer.parseInt(days.trim());
+    }
+
+    /**
+     * How often the store looks for incidents to move to the cold tier.
+     */
+    public static long getColdTierIntervalMinutes() {
+        return 60;
+    }
+
+    /**
+     * Size at which a cold segment is closed and the next one started.
+     */
+    public static long getColdSegmentBytes() {
+        return 256L * 1024 * 1024;
+    }
+
+    /**
+     * Number of small cold segments at which they are merged into one.
+     */
+    public static int getColdSegmentMergeThreshold() {
+        return 8;
+    }
+
+    /**
+     * Codec applied to report and vault artifacts before encryption. Set
+     * per deployment with {@code -Dsecurelogx.artifact.codec} or the
+     * {@code SECURELOGX_ARTIFACT_CODEC} environment variable.
+     */
+    public static SegmentCodec getArtifactCodec() {
+        String codec = System.getProperty(
+                "securelogx.artifact.codec",
+                System.getenv().getOrDefault("SECURELOGX_ARTIFACT_CODEC", "DEFLATE_FAST")
+        );
+        return SegmentCodec.valueOf(codec.trim().toUpperCase());
+    }
+
+    /**
+     * Rules evaluated on every line. All patterns are matched in a single
+     * pass, so adding a rule does not add another scan of the log.
+     */
+    public static List<DetectionRule> getDetectionRules() {
+        int threshold = getFailedAttemptThreshold();
+        return List.of(
+                DetectionRule.threshold(
+                        "SSH_FAILED_PASSWORD", "Failed password", "BRUTE_FORCE",
+                        SourceField.REMOTE_HOST, threshold, 3, 5
+                ),
+                DetectionRule.threshold(
+                        "SSH_INVALID_USER", "Invalid user", "USER_ENUMERATION",
+                        SourceField.REMOTE_HOST, threshold, 3, 10
+                ),
+                DetectionRule.threshold(
+                        "PAM_AUTH_FAILURE", "authentication failure", "AUTHENTICATION_FAILURE",
+                        SourceField.PAM_RHOST, threshold, 3, 5
+                ),
+                DetectionRule.threshold(
+                        "SUDO_FAILURE", "incorrect password attempt", "PRIVILEGE_ESCALATION_ATTEMPT",
+                        SourceField.SUDO_USER, 1, 1, 3
+                ),
+                DetectionRule.successAfterFailure(
+                        "SSH_SUCCESS_AFTER_FAILURES", "Accepted password", "ACCOUNT_COMPROMISE",
+                        SourceField.REMOTE_HOST, "HIGH",
+                        List.of("SSH_FAILED_PASSWORD", "SSH_INVALID_USER")
+                )
+        );
+    }
 }
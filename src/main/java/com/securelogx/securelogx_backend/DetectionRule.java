@@ -0,0 +1,147 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.List;
+
+/**
+ * A single detection rule: the text that identifies a matching line,
+ * where the offending source is read from, and how matches turn into an
+ * incident type and severity.
+ */
+public class DetectionRule {
+
+    public enum Kind {
+        /** Raise once {@code threshold} matches fall within the time window. */
+        THRESHOLD,
+        /** Raise when a match follows a match of any prerequisite rule. */
+        SUCCESS_AFTER_FAILURE
+    }
+
+    public enum SourceField {
+        /** First token after the last {@code "from "} (sshd). */
+        REMOTE_HOST,
+        /** Value of {@code rhost=} (PAM). */
+        PAM_RHOST,
+        /** Invoking user of a {@code sudo:} line. */
+        SUDO_USER
+    }
+
+    private final String id;
+    private final String pattern;
+    private final String incidentType;
+    private final Kind kind;
+    private final SourceField sourceField;
+    private final int threshold;
+    private final int mediumAt;
+    private final int highAt;
+    private final String fixedSeverity;
+    private final List<String> prerequisites;
+
+    private DetectionRule(
+            String id,
+            String pattern,
+            String incidentType,
+            Kind kind,
+            SourceField sourceField,
+            int threshold,
+            int mediumAt,
+            int highAt,
+            String fixedSeverity,
+            List<String> prerequisites
+    ) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Rule ID is required");
+        }
+        if (pattern == null || pattern.isEmpty()) {
+            throw new IllegalArgumentException("Rule pattern is required");
+        }
+
+        this.id = id;
+        this.pattern = pattern;
+        this.incidentType = incidentType;
+        this.kind = kind;
+        this.sourceField = sourceField;
+        this.threshold = threshold;
+        this.mediumAt = mediumAt;
+        this.highAt = highAt;
+        this.fixedSeverity = fixedSeverity;
+        this.prerequisites = prerequisites;
+    }
+
+    // ================= FACTORIES =================
+
+    /**
+     * Raises an incident once {@code threshold} matches from one source fall
+     * within the configured time window. Severity grows with total attempts.
+     */
+    public static DetectionRule threshold(
+            String id,
+            String pattern,
+            String incidentType,
+            SourceField sourceField,
+            int threshold,
+            int mediumAt,
+            int highAt
+    ) {
+        return new DetectionRule(
+                id, pattern, incidentType, Kind.THRESHOLD, sourceField,
+                threshold, mediumAt, highAt, null, List.of()
+        );
+    }
+
+    /**
+     * Raises an incident when a source matches this rule after it has
+     * matched any of the {@code prerequisites}.
+     */
+    public static DetectionRule successAfterFailure(
+            String id,
+            String pattern,
+            String incidentType,
+            SourceField sourceField,
+            String severity,
+            List<String> prerequisites
+    ) {
+        return new DetectionRule(
+                id, pattern, incidentType, Kind.SUCCESS_AFTER_FAILURE, sourceField,
+                1, 0, 0, severity, List.copyOf(prerequisites)
+        );
+    }
+
+    // ================= SEVERITY =================
+
+    public String severityFor(int attempts) {
+        if (fixedSeverity != null) return fixedSeverity;
+        if (attempts >= highAt) return "HIGH";
+        if (attempts >= mediumAt) return "MEDIUM";
+        return "LOW";
+    }
+
+    // ================= GETTERS =================
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public String getIncidentType() {
+        return incidentType;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public SourceField getSourceField() {
+        return sourceField;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public List<String> getPrerequisites() {
+        return prerequisites;
+    }
+}
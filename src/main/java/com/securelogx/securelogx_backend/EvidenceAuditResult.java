@@ -0,0 +1,47 @@
+package com.securelogx.securelogx_backend;
+
+/**
+ * Outcome of auditing one evidence report.
+ */
+public class EvidenceAuditResult {
+
+    public enum Status {
+        /** Payload hash, Merkle root and incident count match the metadata. */
+        VALID,
+        /** The payload does not match its sealed metadata. */
+        TAMPERED,
+        /** Written before reports carried a Merkle root. */
+        LEGACY,
+        /** Not a readable evidence report. */
+        UNREADABLE
+    }
+
+    private final String reportPath;
+    private final Status status;
+    private final long incidentCount;
+    private final String detail;
+
+    public EvidenceAuditResult(String reportPath, Status status, long incidentCount, String detail) {
+        this.reportPath = reportPath;
+        this.status = status;
+        this.incidentCount = incidentCount;
+        this.detail = detail;
+    }
+
+    public String getReportPath() {
+        return reportPath;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getIncidentCount() {
+        return incidentCount;
+    }
+
+    /** Why the report is not {@code VALID}, or null. */
+    public String getDetail() {
+        return detail;
+    }
+}
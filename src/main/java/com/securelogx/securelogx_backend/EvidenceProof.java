@@ -0,0 +1,63 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.List;
+
+/**
+ * One incident record of an evidence report with its Merkle audit path.
+ *
+ * Anyone holding the report's {@code merkleRoot} can check the record
+ * with {@link EvidenceVerifier#verify(EvidenceProof, String)} without the
+ * rest of the report.
+ */
+public class EvidenceProof {
+
+    private final String incidentId;
+    private final String record;
+    private final long leafIndex;
+    private final long leafCount;
+    private final List<String> path;
+    private final String merkleRoot;
+
+    public EvidenceProof(
+            String incidentId,
+            String record,
+            long leafIndex,
+            long leafCount,
+            List<String> path,
+            String merkleRoot
+    ) {
+        this.incidentId = incidentId;
+        this.record = record;
+        this.leafIndex = leafIndex;
+        this.leafCount = leafCount;
+        this.path = List.copyOf(path);
+        this.merkleRoot = merkleRoot;
+    }
+
+    public String getIncidentId() {
+        return incidentId;
+    }
+
+    /** The incident exactly as stored in the report. */
+    public String getRecord() {
+        return record;
+    }
+
+    public long getLeafIndex() {
+        return leafIndex;
+    }
+
+    public long getLeafCount() {
+        return leafCount;
+    }
+
+    /** Sibling hashes (hex), nearest first. */
+    public List<String> getPath() {
+        return path;
+    }
+
+    /** Root sealed in the report's metadata. */
+    public String getMerkleRoot() {
+        return merkleRoot;
+    }
+}
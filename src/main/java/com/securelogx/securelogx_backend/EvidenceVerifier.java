@@ -0,0 +1,380 @@
+package com.securelogx.securelogx_backend;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks evidence written by {@link ReportGenerator}.
+ *
+ * Reports are streamed: the parser only finds where each incident record
+ * starts and ends, and the exact stored bytes are hashed from the file, so
+ * memory does not grow with the number of incidents. Manifests are read
+ * the same way, chunk by chunk. A single incident is proven with its
+ * Merkle audit path; whole directories are audited one report per worker.
+ */
+public final class EvidenceVerifier {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HexFormat HEX = HexFormat.of();
+
+    // Shared by all audits; a report is read by one worker at a time
+    private static final int WORKERS = Config.getCryptoThreads();
+    private static final ExecutorService AUDIT_POOL = Executors.newFixedThreadPool(
+            WORKERS,
+            runnable -> {
+                Thread thread = new Thread(runnable, "securelogx-evidence-audit");
+                thread.setDaemon(true);
+                return thread;
+            }
+    );
+
+    private EvidenceVerifier() {}
+
+    // ================= SINGLE INCIDENT =================
+
+    /**
+     * Builds the proof for {@code incidentId} in {@code report}.
+     */
+    public static EvidenceProof prove(Path report, String incidentId) throws IOException {
+
+        // 1️⃣ Locate the incident and the size of the tree
+        long[] found = {-1};
+        byte[][] record = new byte[1][];
+        Scan locate = new Scan(report);
+        locate.run((index, id, source, start, end) -> {
+            if (found[0] < 0 && incidentId.equals(id)) {
+                found[0] = index;
+                record[0] = source.read(start, end);
+            }
+        });
+        if (found[0] < 0) {
+            throw new IllegalArgumentException("Incident not found in evidence: " + incidentId);
+        }
+        String merkleRoot = locate.metadataText("merkleRoot");
+        if (merkleRoot == null) {
+            throw new IllegalStateException("Evidence was sealed without a Merkle root");
+        }
+
+        // 2️⃣ Hash the sibling subtrees in a second pass
+        long leafIndex = found[0];
+        List<long[]> ranges = MerkleTree.auditPathRanges(leafIndex, locate.count);
+        List<MerkleTree.Builder> siblings = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            siblings.add(new MerkleTree.Builder());
+        }
+
+        new Scan(report).run((index, id, source, start, end) -> {
+            for (int r = 0; r < ranges.size(); r++) {
+                if (index >= ranges.get(r)[0] && index < ranges.get(r)[1]) {
+                    siblings.get(r).add(source.leafHash(start, end));
+                    return;
+                }
+            }
+        });
+
+        List<String> path = new ArrayList<>();
+        for (MerkleTree.Builder sibling : siblings) {
+            path.add(HEX.formatHex(sibling.root()));
+        }
+        return new EvidenceProof(
+                incidentId,
+                new String(record[0], StandardCharsets.UTF_8),
+                leafIndex,
+                locate.count,
+                path,
+                merkleRoot
+        );
+    }
+
+    /**
+     * True if the record in {@code proof} belongs to the report sealed with
+     * {@code trustedRoot}.
+     */
+    public static boolean verify(EvidenceProof proof, String trustedRoot) {
+        try {
+            List<byte[]> path = new ArrayList<>();
+            for (String sibling : proof.getPath()) {
+                path.add(HEX.parseHex(sibling));
+            }
+            return MerkleTree.verify(
+                    MerkleTree.leafHash(proof.getRecord().getBytes(StandardCharsets.UTF_8)),
+                    proof.getLeafIndex(),
+                    proof.getLeafCount(),
+                    path,
+                    HEX.parseHex(trustedRoot)
+            );
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks one incident of {@code report} against the root in its metadata.
+     */
+    public static boolean verifyIncident(Path report, String incidentId) throws IOException {
+        EvidenceProof proof = prove(report, incidentId);
+        return verify(proof, proof.getMerkleRoot());
+    }
+
+    // ================= FULL AUDIT =================
+
+    /**
+     * Audits every {@code incident_report_*.json} in {@code reportsDir}, full
+     * report or manifest, in parallel. Results are in file name order.
+     */
+    public static List<EvidenceAuditResult> auditDirectory(Path reportsDir) throws IOException {
+        List<Path> reports = new ArrayList<>();
+        try (DirectoryStream<Path> stream =
+                     Files.newDirectoryStream(reportsDir, "incident_report_*.json")) {
+            stream.forEach(reports::add);
+        }
+        Collections.sort(reports);
+
+        List<CompletableFuture<EvidenceAuditResult>> audits = new ArrayList<>();
+        for (Path report : reports) {
+            audits.add(CompletableFuture.supplyAsync(() -> audit(report), AUDIT_POOL));
+        }
+
+        List<EvidenceAuditResult> results = new ArrayList<>();
+        for (CompletableFuture<EvidenceAuditResult> audit : audits) {
+            results.add(audit.join());
+        }
+        return results;
+    }
+
+    /**
+     * Rehashes the payload and every incident of {@code report} and compares
+     * them with its sealed metadata. Never throws.
+     */
+    public static EvidenceAuditResult audit(Path report) {
+        String reportPath = report.toString();
+        try {
+            MessageDigest payload = MessageDigest.getInstance("SHA-256");
+            MerkleTree.Builder merkle = new MerkleTree.Builder();
+
+            // Payload hash covers the compact array: records joined by commas
+            Scan scan = new Scan(report);
+            payload.update((byte) '[');
+            scan.run((index, id, source, start, end) -> {
+                if (index > 0) {
+                    payload.update((byte) ',');
+                }
+                MessageDigest leaf = MerkleTree.sha256();
+                leaf.update(MerkleTree.LEAF_PREFIX);
+                source.digest(start, end, payload, leaf);
+                merkle.add(leaf.digest());
+            });
+            payload.update((byte) ']');
+
+            String merkleRoot = scan.metadataText("merkleRoot");
+            if (merkleRoot == null) {
+                return new EvidenceAuditResult(reportPath, EvidenceAuditResult.Status.LEGACY,
+                        scan.count, "Sealed without a Merkle root");
+            }
+
+            String problem = null;
+            if (!HEX.formatHex(payload.digest()).equals(scan.metadataText("evidenceHash"))
+                    || !scan.isCompact()) {
+                problem = "Payload hash does not match";
+            } else if (!HEX.formatHex(merkle.root()).equals(merkleRoot)) {
+                problem = "Merkle root does not match";
+            } else if (!String.valueOf(scan.count).equals(scan.metadataText("incidentCount"))) {
+                problem = "Incident count does not match";
+            }
+            return new EvidenceAuditResult(
+                    reportPath,
+                    problem == null ? EvidenceAuditResult.Status.VALID : EvidenceAuditResult.Status.TAMPERED,
+                    scan.count,
+                    problem
+            );
+        } catch (NoSuchFileException e) {
+            return new EvidenceAuditResult(reportPath, EvidenceAuditResult.Status.UNREADABLE,
+                    0, "Missing file: " + e.getFile());
+        } catch (IOException | RuntimeException | NoSuchAlgorithmException e) {
+            return new EvidenceAuditResult(reportPath, EvidenceAuditResult.Status.UNREADABLE,
+                    0, e.getMessage());
+        }
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    @FunctionalInterface
+    private interface RecordHandler {
+        void accept(long index, String incidentId, RangeReader source, long start, long end)
+                throws IOException;
+    }
+
+    /**
+     * One streaming pass over a report or manifest: reports where each
+     * incident record lies and keeps only the metadata trailer (and, for a
+     * manifest, its chunk hashes).
+     */
+    private static class Scan {
+
+        private final Path evidence;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private final List<String> chunks = new ArrayList<>();
+        private JsonNode metadata;
+        private long count;
+        private long recordBytes;
+        private long storedArrayBytes = -1;
+        private boolean manifest;
+
+        Scan(Path evidence) {
+            this.evidence = evidence;
+        }
+
+        void run(RecordHandler handler) throws IOException {
+            try (RangeReader source = new RangeReader(evidence, buffer);
+                 InputStream in = Files.newInputStream(evidence);
+                 JsonParser parser = MAPPER.createParser(in)) {
+
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IOException("Not an evidence report");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("incidents".equals(field) && value == JsonToken.START_ARRAY) {
+                        long arrayStart = parser.currentTokenLocation().getByteOffset();
+                        readRecords(parser, source, handler);
+                        storedArrayBytes = parser.currentLocation().getByteOffset() - arrayStart;
+                    } else if ("chunks".equals(field) && value == JsonToken.START_ARRAY) {
+                        manifest = true;
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            JsonNode chunk = parser.readValueAsTree();
+                            chunks.add(chunk.path("hash").asText());
+                        }
+                    } else if ("metadata".equals(field) && value == JsonToken.START_OBJECT) {
+                        metadata = parser.readValueAsTree();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            if ((storedArrayBytes < 0 && !manifest) || metadata == null) {
+                throw new IOException("Evidence report is missing incidents or metadata");
+            }
+
+            // Manifest records live in content-addressed chunks next to it
+            Path reportsDir = evidence.toAbsolutePath().getParent();
+            for (String hash : chunks) {
+                Path chunk = ReportGenerator.chunkPath(reportsDir, hash);
+                try (RangeReader source = new RangeReader(chunk, buffer);
+                     InputStream in = Files.newInputStream(chunk);
+                     JsonParser parser = MAPPER.createParser(in)) {
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        throw new IOException("Evidence chunk is corrupt: " + hash);
+                    }
+                    readRecords(parser, source, handler);
+                }
+            }
+        }
+
+        private void readRecords(JsonParser parser, RangeReader source, RecordHandler handler)
+                throws IOException {
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Malformed incident record");
+                }
+                long start = parser.currentTokenLocation().getByteOffset();
+                String incidentId = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    if (parser.nextToken() == JsonToken.VALUE_STRING && "incidentId".equals(name)) {
+                        incidentId = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                long end = parser.currentLocation().getByteOffset();
+                recordBytes += end - start;
+                handler.accept(count++, incidentId, source, start, end);
+            }
+        }
+
+        /**
+         * False if a stored report has anything but single commas between
+         * its records, which the hash of the compact array would not see.
+         */
+        boolean isCompact() {
+            return manifest || storedArrayBytes == recordBytes + Math.max(count - 1, 0) + 2;
+        }
+
+        String metadataText(String field) {
+            JsonNode value = metadata.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+
+    /** Positional reads of stored bytes, hashed without buffering a record. */
+    private static class RangeReader implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        RangeReader(Path file, ByteBuffer buffer) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer = buffer;
+        }
+
+        void digest(long from, long to, MessageDigest... digests) throws IOException {
+            while (from < to) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), to - from));
+                int n = channel.read(buffer, from);
+                if (n < 0) {
+                    throw new IOException("Evidence report is truncated");
+                }
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer.array(), 0, n);
+                }
+                from += n;
+            }
+        }
+
+        byte[] leafHash(long from, long to) throws IOException {
+            MessageDigest leaf = MerkleTree.sha256();
+            leaf.update(MerkleTree.LEAF_PREFIX);
+            digest(from, to, leaf);
+            return leaf.digest();
+        }
+
+        byte[] read(long from, long to) throws IOException {
+            ByteBuffer record = ByteBuffer.allocate((int) (to - from));
+            while (record.hasRemaining()) {
+                if (channel.read(record, from + record.position()) < 0) {
+                    throw new IOException("Evidence report is truncated");
+                }
+            }
+            return record.array();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sliding time-window failure tracking per source.
+ *
+ * A source is flagged once any {@code threshold} consecutive failures
+ * from it fall within {@code windowSeconds} of each other. Each source
+ * keeps only its last {@code threshold} failure times in a ring, plus its
+ * first {@code threshold - 1} so that windows of adjacent chunks can be
+ * stitched together in {@link #merge(FailureWindows)}.
+ *
+ * State lives in flat primitive arrays indexed by a dense source id, so
+ * memory grows with distinct sources and never with the number of lines.
+ */
+public class FailureWindows {
+
+    private final int threshold;
+    private final int windowSeconds;
+
+    private final SourceIndex sources = new SourceIndex();
+
+    // Per source: totals, ring of recent times, first times, flag and when
+    private int[] totals;
+    private int[] ringPositions;
+    private int[] recent;
+    private int[] first;
+    private boolean[] flagged;
+    private int[] flaggedAt;
+    private int flaggedSources;
+
+    @FunctionalInterface
+    public interface SourceConsumer {
+        /**
+         * @param flaggedAt scan time of the event that flagged the source
+         */
+        void accept(String source, int attempts, int flaggedAt);
+    }
+
+    public FailureWindows(int threshold, int windowSeconds) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Failed attempt threshold must be at least 1");
+        }
+        this.threshold = threshold;
+        this.windowSeconds = windowSeconds;
+
+        int capacity = sources.capacity();
+        this.totals = new int[capacity];
+        this.ringPositions = new int[capacity];
+        this.recent = new int[capacity * threshold];
+        this.first = new int[capacity * (threshold - 1)];
+        this.flagged = new boolean[capacity];
+        this.flaggedAt = new int[capacity];
+    }
+
+    // ================= RECORDING =================
+
+    public void recordIpv4(int ip, int time) {
+        push(ensureCapacity(sources.idForIpv4(ip)), time);
+    }
+
+    public void recordText(String source, int time) {
+        push(ensureCapacity(sources.idForText(source)), time);
+    }
+
+    private void push(int id, int time) {
+        int total = totals[id];
+        if (total < threshold - 1) {
+            first[id * (threshold - 1) + total] = time;
+        }
+
+        recent[id * threshold + ringPositions[id]] = time;
+        ringPositions[id] = (ringPositions[id] + 1) % threshold;
+        totals[id] = total + 1;
+
+        if (!flagged[id] && total + 1 >= threshold && withinWindow(id)) {
+            flag(id, time);
+        }
+    }
+
+    private boolean withinWindow(int id) {
+        int base = id * threshold;
+        int min = recent[base];
+        int max = recent[base];
+        for (int i = 1; i < threshold; i++) {
+            min = Math.min(min, recent[base + i]);
+            max = Math.max(max, recent[base + i]);
+        }
+        return max - min <= windowSeconds;
+    }
+
+    // ================= MERGING =================
+
+    /**
+     * Appends the failures tracked by {@code later}, which must cover input
+     * that directly follows this one. The result is the same as if all
+     * failures had been recorded here in order.
+     */
+    public void merge(FailureWindows later) {
+        for (int other = 0; other < later.sources.size(); other++) {
+            int id = ensureCapacity(sources.idFor(later.sources, other));
+
+            // Windows straddling the boundary use at most threshold - 1 of
+            // the later failures, and those are exactly its first times
+            int laterTotal = later.totals[other];
+            int replay = Math.min(laterTotal, threshold - 1);
+            for (int i = 0; i < replay; i++) {
+                push(id, later.first[other * (threshold - 1) + i]);
+            }
+
+            if (laterTotal > replay) {
+                // Windows wholly inside the later input were already checked
+                totals[id] += laterTotal - replay;
+                if (later.flagged[other]) {
+                    flag(id, later.flaggedAt[other]);
+                }
+                for (int i = 0; i < threshold; i++) {
+                    recent[id * threshold + i] = later.recentAt(other, i);
+                }
+                ringPositions[id] = 0;
+            }
+        }
+    }
+
+    /** The i-th oldest of the last {@code threshold} times of a full ring. */
+    private int recentAt(int id, int i) {
+        return recent[id * threshold + (ringPositions[id] + i) % threshold];
+    }
+
+    // ================= RESULTS =================
+
+    public void forEachFlagged(SourceConsumer consumer) {
+        for (int id = 0; id < sources.size(); id++) {
+            if (flagged[id]) {
+                consumer.accept(sources.name(id), totals[id], flaggedAt[id]);
+            }
+        }
+    }
+
+    /**
+     * Number of sources flagged so far.
+     */
+    public int flaggedCount() {
+        return flaggedSources;
+    }
+
+    // ================= PERSISTENCE =================
+
+    /**
+     * Per-source state needed to keep detecting on input appended later.
+     * Times are listed oldest first.
+     */
+    public Map<String, SourceState> snapshot() {
+        Map<String, SourceState> snapshot = new LinkedHashMap<>();
+        for (int id = 0; id < sources.size(); id++) {
+            SourceState state = new SourceState();
+            state.attempts = totals[id];
+            state.flagged = flagged[id];
+            state.flaggedAt = flaggedAt[id];
+
+            int kept = Math.min(totals[id], threshold);
+            int oldest = totals[id] >= threshold ? ringPositions[id] : 0;
+            state.recentTimes = new int[kept];
+            for (int i = 0; i < kept; i++) {
+                state.recentTimes[i] = recent[id * threshold + (oldest + i) % threshold];
+            }
+            snapshot.put(sources.name(id), state);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Restores a snapshot as the state before any further input. Only the
+     * recent times survive, so a restored instance must be the earlier side
+     * of any later {@link #merge(FailureWindows)}.
+     */
+    public void restore(Map<String, SourceState> snapshot) {
+        snapshot.forEach((source, state) -> {
+            int id = ensureCapacity(sources.idForName(source));
+
+            // Flag first, so replaying the recent times keeps the original time
+            if (state.flagged) {
+                flag(id, state.flaggedAt);
+            }
+            int[] times = state.recentTimes != null ? state.recentTimes : new int[0];
+            int tail = Math.min(times.length, threshold);
+            for (int i = times.length - tail; i < times.length; i++) {
+                push(id, times[i]);
+            }
+            totals[id] = Math.max(state.attempts, totals[id]);
+        });
+    }
+
+    public static class SourceState {
+        public int attempts;
+        public boolean flagged;
+        public int flaggedAt;
+        public int[] recentTimes;
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    private void flag(int id, int time) {
+        if (!flagged[id]) {
+            flagged[id] = true;
+            flaggedAt[id] = time;
+            flaggedSources++;
+        }
+    }
+
+    private int ensureCapacity(int id) {
+        if (id >= totals.length) {
+            int capacity = sources.capacity();
+            totals = Arrays.copyOf(totals, capacity);
+            ringPositions = Arrays.copyOf(ringPositions, capacity);
+            recent = Arrays.copyOf(recent, capacity * threshold);
+            first = Arrays.copyOf(first, capacity * (threshold - 1));
+            flagged = Arrays.copyOf(flagged, capacity);
+            flaggedAt = Arrays.copyOf(flaggedAt, capacity);
+        }
+        return id;
+    }
+}
@@ -1,7 +1,11 @@
 package com.securelogx.securelogx_backend;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
@@ -9,9 +13,15 @@ import java.util.Set;
 /**
  * Represents a detected security incident.
  *
- * Core detection fields are immutable.
+ * Identity and type are immutable; attempts, severity and risk follow
+ * repeat detections of the same source.
  * Lifecycle state is controlled and auditable.
  * Timeline is append-only (chain-of-custody ready).
+ *
+ * Safe to share between request threads without locks: detection fields
+ * are swapped as one immutable value, and the status lives in the
+ * {@link IncidentTimeline}, which publishes each change together with its
+ * STATUS_CHANGED event.
  */
 public class Incident {
 
@@ -22,9 +32,10 @@ public class Incident {
     // ================= CORE INCIDENT DATA =================
 
     private final String ipAddress;
-    private final int failedAttempts;
-    private final String severity;
-    private final int riskScore;
+    private final String incidentType;
+
+    // Attempts, severity and risk, replaced together on redetection
+    private volatile Detection detection;
 
     // 🔐 FORENSIC ARTIFACT (NEW)
     private final String artifactPath;
@@ -38,11 +49,34 @@ public class Incident {
         CLOSED
     }
 
-    private IncidentStatus status;
+    private static final VarHandle DETECTION;
+
+    static {
+        try {
+            DETECTION = MethodHandles.lookup().findVarHandle(Incident.class, "detection", Detection.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     // ================= TIMELINE =================
 
-    private final List<TimelineEvent> timeline = new ArrayList<>();
+    private final IncidentTimeline timeline;
+
+    // ================= PERSISTENCE =================
+
+    /**
+     * Receives every timeline event once the incident belongs to a durable
+     * store, with the position the event took in each timeline.
+     */
+    interface Journal {
+        void recorded(List<Incident> incidents, int[] positions, TimelineEvent event, IncidentStatus newStatus);
+
+        void redetected(Incident incident, int position, TimelineEvent event,
+                        int failedAttempts, String severity, String artifactPath);
+    }
+
+    private volatile Journal journal;
 
     // ================= CONSTRUCTOR =================
 
@@ -52,6 +86,17 @@ public class Incident {
             int failedAttempts,
             String severity,
             String artifactPath
+    ) {
+        this(incidentId, ipAddress, "BRUTE_FORCE", failedAttempts, severity, artifactPath);
+    }
+
+    public Incident(
+            String incidentId,
+            String ipAddress,
+            String incidentType,
+            int failedAttempts,
+            String severity,
+            String artifactPath
     ) {
         if (incidentId == null || incidentId.isBlank()) {
             throw new IllegalArgumentException("Incident ID is required");
@@ -59,12 +104,11 @@ public class Incident {
 
         this.incidentId = incidentId;
         this.ipAddress = ipAddress;
-        this.failedAttempts = failedAttempts;
-        this.severity = severity;
+        this.incidentType = incidentType;
+        this.detection = new Detection(failedAttempts, severity);
         this.artifactPath = artifactPath;
-        this.riskScore = calculateRiskScore(failedAttempts, severity);
 
-        this.status = IncidentStatus.OPEN;
+        this.timeline = new IncidentTimeline(IncidentStatus.OPEN);
 
         addEvent(
                 "INCIDENT_CREATED",
@@ -87,6 +131,84 @@ public class Incident {
         );
     }
 
+    private Incident(
+            String incidentId,
+            String ipAddress,
+            String incidentType,
+            int failedAttempts,
+            String severity,
+            String artifactPath,
+            IncidentStatus status,
+            List<TimelineEvent> timeline
+    ) {
+        this.incidentId = incidentId;
+        this.ipAddress = ipAddress;
+        this.incidentType = incidentType;
+        this.detection = new Detection(failedAttempts, severity);
+        this.artifactPath = artifactPath;
+        this.timeline = new IncidentTimeline(status, timeline);
+    }
+
+    /**
+     * Rebuilds a stored incident exactly as it was, without creation events.
+     */
+    static Incident restore(
+            String incidentId,
+            String ipAddress,
+            String incidentType,
+            int failedAttempts,
+            String severity,
+            String artifactPath,
+            IncidentStatus status,
+            List<TimelineEvent> timeline
+    ) {
+        return new Incident(incidentId, ipAddress, incidentType, failedAttempts,
+                severity, artifactPath, status, timeline);
+    }
+
+    /** Sends every later event to {@code journal}. */
+    void attach(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Re-applies a logged event. Events may be logged out of order and
+     * replayed twice: each goes back to its own position, and status only
+     * moves forward along the lifecycle.
+     */
+    void replay(int position, TimelineEvent event, IncidentStatus newStatus) {
+        timeline.place(position, event);
+        if (newStatus != null) {
+            timeline.advance(newStatus);
+        }
+    }
+
+    /** Re-applies a logged redetection, like {@link #replay}. */
+    void replayRedetection(int position, TimelineEvent event, int attempts, String severity) {
+        timeline.place(position, event);
+        if (attempts >= detection.attempts) {
+            this.detection = new Detection(attempts, severity);
+        }
+    }
+
+    /**
+     * Appends an event that was first added to another copy of this
+     * incident, without journaling it again.
+     */
+    int adopt(TimelineEvent event) {
+        return timeline.append(event);
+    }
+
+    /** Time of the latest timeline event. */
+    LocalDateTime lastActivity() {
+        return timeline.lastTimestamp();
+    }
+
+    /** Ends a replay, dropping gaps left by a torn log. */
+    void replayed() {
+        timeline.compact();
+    }
+
     // ================= GETTERS =================
 
     public String getIncidentId() {
@@ -97,28 +219,38 @@ public class Incident {
         return ipAddress;
     }
 
+    public String getIncidentType() {
+        return incidentType;
+    }
+
     public int getFailedAttempts() {
-        return failedAttempts;
+        return detection.attempts;
     }
 
     public String getSeverity() {
-        return severity;
+        return detection.severity;
     }
 
     public int getRiskScore() {
-        return riskScore;
+        return detection.riskScore;
     }
 
     public IncidentStatus getStatus() {
-        return status;
+        return timeline.status();
     }
 
     public String getArtifactPath() {
         return artifactPath;
     }
 
+    /** Time of the INCIDENT_CREATED event. */
+    public LocalDateTime getCreatedAt() {
+        return timeline.firstTimestamp();
+    }
+
+    /** The timeline as of now; later events do not show up in the list. */
     public List<TimelineEvent> getTimeline() {
-        return timeline;
+        return timeline.snapshot();
     }
 
     /**
@@ -126,7 +258,7 @@ public class Incident {
      * Backend still enforces transitions strictly.
      */
     public Set<IncidentStatus> getAllowedNextStatuses() {
-        switch (status) {
+        switch (getStatus()) {
             case OPEN:
                 return EnumSet.of(IncidentStatus.INVESTIGATING);
             case INVESTIGATING:
@@ -141,7 +273,7 @@ public class Incident {
 
     // ================= RISK LOGIC =================
 
-    private int calculateRiskScore(int attempts, String severity) {
+    private static int calculateRiskScore(int attempts, String severity) {
         int score = attempts * 10;
 
         switch (severity.toUpperCase()) {
@@ -161,6 +293,53 @@ public class Incident {
         return Math.min(score, 100);
     }
 
+    // ================= REPEAT DETECTION =================
+
+    /**
+     * Folds another detection of the same source by the same rule into this
+     * incident. Attempts only grow, so re-analysing a log does not inflate
+     * them; the event names the artifact holding the new evidence.
+     */
+    void redetected(int attempts, String severity, String artifactPath) {
+        Detection before;
+        Detection after;
+        do {
+            before = this.detection;
+            after = attempts >= before.attempts ? new Detection(attempts, severity) : before;
+        } while (after != before && !DETECTION.compareAndSet(this, before, after));
+
+        String change = after == before || (after.attempts == before.attempts && after.severity.equals(before.severity))
+                ? "no change"
+                : "attempts " + before.attempts + " → " + after.attempts
+                + ", severity " + before.severity + " → " + after.severity;
+        TimelineEvent event = new TimelineEvent(
+                "INCIDENT_REDETECTED",
+                null,
+                "Detected again by analysis engine (" + change + "), evidence in " + artifactPath,
+                now()
+        );
+        int position = timeline.append(event);
+
+        Journal journal = this.journal;
+        if (journal != null) {
+            journal.redetected(this, position, event, after.attempts, after.severity, artifactPath);
+        }
+    }
+
+    /** Attempts, severity and the risk score they give. */
+    private static final class Detection {
+
+        final int attempts;
+        final String severity;
+        final int riskScore;
+
+        Detection(int attempts, String severity) {
+            this.attempts = attempts;
+            this.severity = severity;
+            this.riskScore = calculateRiskScore(attempts, severity);
+        }
+    }
+
     // ================= LIFECYCLE CONTROL =================
 
     public void updateStatus(IncidentStatus newStatus, String analyst) {
@@ -168,21 +347,28 @@ public class Incident {
             throw new IllegalArgumentException("Incident status cannot be null");
         }
 
-        if (!isValidTransition(this.status, newStatus)) {
-            throw new IllegalStateException(
-                    "Invalid incident status transition: " +
-                            this.status + " → " + newStatus
+        // Of two racing analysts, one wins and the other sees the new state.
+        // The event goes in with the change, so the timeline keeps their order.
+        while (true) {
+            IncidentStatus oldStatus = timeline.status();
+            if (!isValidTransition(oldStatus, newStatus)) {
+                throw new IllegalStateException(
+                        "Invalid incident status transition: " +
+                                oldStatus + " → " + newStatus
+                );
+            }
+            TimelineEvent event = new TimelineEvent(
+                    "STATUS_CHANGED",
+                    analyst,
+                    "Status changed from " + oldStatus + " to " + newStatus,
+                    now()
             );
+            int position = timeline.transition(oldStatus, newStatus, event);
+            if (position >= 0) {
+                journal(position, event, newStatus);
+                return;
+            }
         }
-
-        IncidentStatus oldStatus = this.status;
-        this.status = newStatus;
-
-        addEvent(
-                "STATUS_CHANGED",
-                analyst,
-                "Status changed from " + oldStatus + " to " + newStatus
-        );
     }
 
     private boolean isValidTransition(IncidentStatus from, IncidentStatus to) {
@@ -202,12 +388,7 @@ public class Incident {
     // ================= FORENSIC / AUDIT EVENTS =================
 
     public void recordEvidenceAccess(String actor, String reason) {
-        if (actor == null || actor.isBlank()) {
-            throw new IllegalArgumentException("Actor is required for evidence access logging");
-        }
-        if (reason == null || reason.isBlank()) {
-            throw new IllegalArgumentException("Access reason is required for forensic audit");
-        }
+        requireAccessDetails(actor, reason);
 
         addEvent(
                 "EVIDENCE_ACCESSED",
@@ -216,15 +397,78 @@ public class Incident {
         );
     }
 
+    /**
+     * Records one access to an artifact shared by several incidents. The
+     * event is created once and appended to every timeline.
+     */
+    public static void recordEvidenceAccess(Collection<Incident> incidents, String actor, String reason) {
+        requireAccessDetails(actor, reason);
+
+        TimelineEvent event = new TimelineEvent(
+                "EVIDENCE_ACCESSED",
+                actor,
+                reason,
+                now()
+        );
+        List<Incident> recorded = new ArrayList<>(incidents);
+        int[] positions = new int[recorded.size()];
+        Journal shared = null;
+        boolean sameJournal = true;
+        for (int i = 0; i < positions.length; i++) {
+            Incident incident = recorded.get(i);
+            positions[i] = incident.timeline.append(event);
+
+            Journal journal = incident.journal;
+            if (journal != null && shared != null && journal != shared) {
+                sameJournal = false;
+            }
+            if (shared == null) {
+                shared = journal;
+            }
+        }
+
+        // One journal entry for the whole batch unless stores are mixed
+        if (sameJournal && shared != null) {
+            shared.recorded(recorded, positions, event, null);
+        } else if (!sameJournal) {
+            for (int i = 0; i < positions.length; i++) {
+                Journal journal = recorded.get(i).journal;
+                if (journal != null) {
+                    journal.recorded(List.of(recorded.get(i)), new int[]{positions[i]}, event, null);
+                }
+            }
+        }
+    }
+
+    private static void requireAccessDetails(String actor, String reason) {
+        if (actor == null || actor.isBlank()) {
+            throw new IllegalArgumentException("Actor is required for evidence access logging");
+        }
+        if (reason == null || reason.isBlank()) {
+            throw new IllegalArgumentException("Access reason is required for forensic audit");
+        }
+    }
+
     // ================= TIMELINE LOGIC =================
 
     private void addEvent(String action, String actor, String note) {
-        timeline.add(new TimelineEvent(
+        append(new TimelineEvent(
                 action,
                 actor,
                 note,
-                LocalDateTime.now()
-        ));
+                now()
+        ), null);
+    }
+
+    private void append(TimelineEvent event, IncidentStatus newStatus) {
+        journal(timeline.append(event), event, newStatus);
+    }
+
+    private void journal(int position, TimelineEvent event, IncidentStatus newStatus) {
+        Journal journal = this.journal;
+        if (journal != null) {
+            journal.recorded(List.of(this), new int[]{position}, event, newStatus);
+        }
     }
 
     public void addAnalystNote(String analyst, String note) {
@@ -239,8 +483,17 @@ public class Incident {
         );
     }
 
+    /** Event time, at the millisecond precision the timeline keeps. */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
     // ================= TIMELINE EVENT =================
 
+    /**
+     * One timeline entry. Incidents keep their events packed; these are
+     * decoded when the timeline is read.
+     */
     public static class TimelineEvent {
 
         private final String action;
@@ -0,0 +1,154 @@
+package com.securelogx.securelogx_backend;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary form of incidents and timeline events for the incident log and
+ * snapshots.
+ *
+ * Strings are dictionary-encoded for the lifetime of one codec: the first
+ * occurrence is written out and later ones refer to it by number. A log
+ * record uses a fresh codec; a snapshot uses one for the whole file, so
+ * artifact paths, actors and notes are stored (and loaded) once.
+ */
+final class IncidentCodec {
+
+    private static final int NULL_STRING = -1;
+    private static final int NEW_STRING = -2;
+
+    private final Map<String, Integer> written = new HashMap<>();
+    private final List<String> read = new ArrayList<>();
+
+    // ================= WRITING =================
+
+    void writeIncident(DataOutputStream out, Incident incident, List<Incident.TimelineEvent> timeline)
+            throws IOException {
+        writeString(out, incident.getIncidentId());
+        writeString(out, incident.getIpAddress());
+        writeString(out, incident.getIncidentType());
+        out.writeInt(incident.getFailedAttempts());
+        writeString(out, incident.getSeverity());
+        writeString(out, incident.getArtifactPath());
+        out.writeByte(incident.getStatus().ordinal());
+        out.writeInt(timeline.size());
+        for (Incident.TimelineEvent event : timeline) {
+            writeEvent(out, event);
+        }
+    }
+
+    void writeEvent(DataOutputStream out, Incident.TimelineEvent event) throws IOException {
+        writeString(out, event.getAction());
+        writeString(out, event.getActor());
+        writeString(out, event.getNote());
+        out.writeLong(epochNanos(event.getTimestamp()));
+    }
+
+    void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+        Integer id = written.get(value);
+        if (id != null) {
+            out.writeInt(id);
+            return;
+        }
+        written.put(value, written.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(NEW_STRING);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // ================= READING =================
+
+    Incident readIncident(ByteBuffer in) {
+        String incidentId = readString(in);
+        String ipAddress = readString(in);
+        String incidentType = readString(in);
+        int failedAttempts = in.getInt();
+        String severity = readString(in);
+        String artifactPath = readString(in);
+        Incident.IncidentStatus status = status(in.get());
+
+        int events = in.getInt();
+        List<Incident.TimelineEvent> timeline = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            timeline.add(readEvent(in));
+        }
+        return Incident.restore(incidentId, ipAddress, incidentType, failedAttempts,
+                severity, artifactPath, status, timeline);
+    }
+
+    Incident.TimelineEvent readEvent(ByteBuffer in) {
+        String action = readString(in);
+        String actor = readString(in);
+        String note = readString(in);
+        long nanos = in.getLong();
+        return new Incident.TimelineEvent(action, actor, note, fromEpochNanos(nanos));
+    }
+
+    String readString(ByteBuffer in) {
+        int id = in.getInt();
+        if (id == NULL_STRING) {
+            return null;
+        }
+        if (id != NEW_STRING) {
+            return read.get(id);
+        }
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        read.add(value);
+        return value;
+    }
+
+    /**
+     * The first string of something written with a fresh codec, which is
+     * always spelled out, read without building a dictionary.
+     */
+    static String readFirstString(ByteBuffer in) {
+        int id = in.getInt();
+        if (id == NULL_STRING) {
+            return null;
+        }
+        if (id != NEW_STRING) {
+            throw new IllegalArgumentException("Not the start of an encoded record");
+        }
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static Incident.IncidentStatus status(int ordinal) {
+        Incident.IncidentStatus[] statuses = Incident.IncidentStatus.values();
+        if (ordinal < 0 || ordinal >= statuses.length) {
+            throw new IllegalArgumentException("Unknown incident status: " + ordinal);
+        }
+        return statuses[ordinal];
+    }
+
+    // ================= TIMESTAMPS =================
+
+    /** Timeline times are zone-less; UTC is only used as a fixed offset. */
+    static long epochNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L),
+                ZoneOffset.UTC
+        );
+    }
+}
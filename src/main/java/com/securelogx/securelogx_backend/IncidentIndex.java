@@ -0,0 +1,455 @@
+package com.securelogx.securelogx_backend;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes over the incidents of an {@link IncidentStore}.
+ *
+ * Each index is a sorted set of {@link Key}s. The IP, severity and status
+ * indexes are ordered by creation time then id, so a creation-time range
+ * is a sub-range of any of them; the risk index is ordered by score first.
+ * A query walks the smallest index that applies from its cursor and checks
+ * the remaining filters on the live incident, so a page costs what it
+ * returns plus what those filters reject, capped by a scan limit.
+ *
+ * Only incidents in memory are held here. Each {@link ColdSegment} has the
+ * same postings on disk, and a query merges them with these in key order.
+ */
+final class IncidentIndex {
+
+    private static final Comparator<Key> BY_TIME = Comparator
+            .comparingLong((Key key) -> key.createdAt)
+            .thenComparing(key -> key.incidentId);
+    private static final Comparator<Key> BY_RISK = Comparator
+            .comparingInt((Key key) -> key.riskScore)
+            .thenComparing(BY_TIME);
+
+    private final Postings all = new Postings(BY_TIME);
+    private final Postings byRisk = new Postings(BY_RISK);
+    private final Map<String, Postings> byIp = new ConcurrentHashMap<>();
+    private final Map<String, Postings> bySeverity = new ConcurrentHashMap<>();
+    private final Map<Incident.IncidentStatus, Postings> byStatus = new EnumMap<>(Incident.IncidentStatus.class);
+
+    IncidentIndex() {
+        // Filled once; only the postings change afterwards
+        for (Incident.IncidentStatus status : Incident.IncidentStatus.values()) {
+            byStatus.put(status, new Postings(BY_TIME));
+        }
+    }
+
+    // ================= MAINTENANCE =================
+
+    void add(Incident incident) {
+        Key key = Key.of(incident);
+        all.add(key);
+        byRisk.add(key);
+        if (incident.getIpAddress() != null) {
+            // Inside compute, so a posting emptied by remove() is not added to
+            byIp.compute(incident.getIpAddress(), (ip, postings) -> {
+                Postings added = postings == null ? new Postings(BY_TIME) : postings;
+                added.add(key);
+                return added;
+            });
+        }
+        if (incident.getSeverity() != null) {
+            bySeverity.computeIfAbsent(severityKey(incident.getSeverity()), s -> new Postings(BY_TIME)).add(key);
+        }
+        byStatus.get(incident.getStatus()).add(key);
+    }
+
+    /** Drops an incident that moved to the cold tier. */
+    void remove(Incident incident) {
+        Key key = Key.of(incident);
+        all.remove(key);
+        byRisk.remove(key);
+        if (incident.getIpAddress() != null) {
+            byIp.computeIfPresent(incident.getIpAddress(), (ip, postings) -> {
+                postings.remove(key);
+                return postings.size() == 0 ? null : postings;
+            });
+        }
+        if (incident.getSeverity() != null) {
+            Postings postings = bySeverity.get(severityKey(incident.getSeverity()));
+            if (postings != null) {
+                postings.remove(key);
+            }
+        }
+        byStatus.get(incident.getStatus()).remove(key);
+    }
+
+    /** Moves an incident to the posting of its current status. */
+    void statusChanged(Incident incident) {
+        Key key = Key.of(incident);
+        Incident.IncidentStatus current = incident.getStatus();
+        for (Map.Entry<Incident.IncidentStatus, Postings> entry : byStatus.entrySet()) {
+            if (entry.getKey() == current) {
+                entry.getValue().add(key);
+            } else {
+                entry.getValue().remove(key);
+            }
+        }
+    }
+
+    /** Re-files an incident whose risk score or severity changed. */
+    void update(Incident incident, int oldRisk, String oldSeverity) {
+        Key key = Key.of(incident);
+        if (oldRisk != key.riskScore) {
+            byRisk.remove(new Key(oldRisk, key.createdAt, key.incidentId));
+            byRisk.add(key);
+        }
+        String severity = incident.getSeverity();
+        if (oldSeverity != null && severity != null && !severityKey(oldSeverity).equals(severityKey(severity))) {
+            Postings old = bySeverity.get(severityKey(oldSeverity));
+            if (old != null) {
+                old.remove(key);
+            }
+            bySeverity.computeIfAbsent(severityKey(severity), s -> new Postings(BY_TIME)).add(key);
+        }
+    }
+
+    void clear() {
+        all.clear();
+        byRisk.clear();
+        byIp.clear();
+        bySeverity.clear();
+        byStatus.values().forEach(Postings::clear);
+    }
+
+    // ================= QUERIES =================
+
+    /**
+     * One page of {@code query}. Keys of {@code cold} segments count only
+     * where {@code current} says that segment holds the incident's current
+     * copy, as memory and newer segments replace older ones.
+     */
+    IncidentPage query(
+            IncidentQuery query,
+            List<ColdSegment> cold,
+            BiPredicate<ColdSegment, String> current,
+            Function<String, Incident> lookup,
+            int scanLimit
+    ) {
+        boolean byScore = query.getSort() == IncidentQuery.Sort.RISK;
+        boolean descending = query.getSort() != IncidentQuery.Sort.OLDEST;
+        Comparator<Key> order = byScore ? BY_RISK : BY_TIME;
+
+        // 1️⃣ The range every source is read over, in ascending terms
+        Key lower;
+        Key upper;
+        Source driver;
+        if (byScore) {
+            lower = query.getMinRisk() == null ? null : new Key(query.getMinRisk(), Long.MIN_VALUE, "");
+            upper = query.getMaxRisk() == null || query.getMaxRisk() == Integer.MAX_VALUE
+                    ? null
+                    : new Key(query.getMaxRisk() + 1, Long.MIN_VALUE, "");
+            driver = new Source(byRisk, cold, ColdSegment::byRisk);
+        } else {
+            lower = query.getCreatedFrom() == null ? null : Key.bound(query.getCreatedFrom());
+            upper = query.getCreatedTo() == null ? null : Key.bound(query.getCreatedTo());
+            driver = timeDriver(query, cold);
+        }
+        Key cursor = query.getCursor() == null ? null : Key.decode(query.getCursor());
+
+        // 2️⃣ Merge memory and every cold run in the order asked for
+        Comparator<KeyStream> byHead = Comparator.comparing(stream -> stream.head, order);
+        PriorityQueue<KeyStream> streams = new PriorityQueue<>(descending ? byHead.reversed() : byHead);
+        NavigableSet<Key> keys = range(driver.postings.keys, lower, upper);
+        if (descending) {
+            keys = keys.descendingSet();
+        }
+        if (cursor != null) {
+            keys = keys.tailSet(cursor, false);
+        }
+        KeyStream memory = new KeyStream(keys.iterator());
+        if (memory.advance()) {
+            streams.add(memory);
+        }
+        for (ColdSegment.Run run : driver.runs) {
+            int from = lower == null ? 0 : search(run, order, lower, true);
+            int to = upper == null ? run.size() : search(run, order, upper, true);
+            if (cursor != null && descending) {
+                to = Math.min(to, search(run, order, cursor, true));
+            } else if (cursor != null) {
+                from = Math.max(from, search(run, order, cursor, false));
+            }
+            KeyStream stream = new KeyStream(run, from, to, descending);
+            if (stream.advance()) {
+                streams.add(stream);
+            }
+        }
+
+        List<Incident> page = new ArrayList<>();
+        Key last = null;
+        int scanned = 0;
+        while (!streams.isEmpty()) {
+            if (page.size() == query.getLimit()) {
+                return new IncidentPage(page, last.encode());
+            }
+            if (scanned == scanLimit) {
+                // Resume after the last key looked at, matched or not
+                return new IncidentPage(page, last.encode());
+            }
+            KeyStream stream = streams.poll();
+            last = stream.head;
+            scanned++;
+            if (stream.advance()) {
+                streams.add(stream);
+            }
+            if (stream.run != null && !current.test(stream.run.segment, last.incidentId)) {
+                continue;
+            }
+
+            Incident incident = lookup.apply(last.incidentId);
+            // A score that changed mid-update can leave a second risk key behind
+            boolean live = incident != null && (!byScore || last.riskScore == incident.getRiskScore());
+            if (live && matches(incident, query)) {
+                page.add(incident);
+            }
+        }
+        return new IncidentPage(page, null);
+    }
+
+    /** The smallest time-ordered index that applies to {@code query}. */
+    private Source timeDriver(IncidentQuery query, List<ColdSegment> cold) {
+        Source driver = new Source(all, cold, ColdSegment::byTime);
+        if (query.getIpAddress() != null) {
+            driver = smaller(driver, new Source(byIp.get(query.getIpAddress()), cold,
+                    segment -> segment.byIp(query.getIpAddress())));
+        }
+        if (query.getSeverity() != null) {
+            String severity = severityKey(query.getSeverity());
+            driver = smaller(driver, new Source(bySeverity.get(severity), cold,
+                    segment -> segment.bySeverity(severity)));
+        }
+        if (query.getStatus() != null) {
+            driver = smaller(driver, new Source(byStatus.get(query.getStatus()), cold,
+                    segment -> segment.byStatus(query.getStatus())));
+        }
+        return driver;
+    }
+
+    private static NavigableSet<Key> range(NavigableSet<Key> keys, Key lower, Key upper) {
+        if (lower != null) {
+            keys = keys.tailSet(lower, true);
+        }
+        if (upper != null) {
+            keys = keys.headSet(upper, false);
+        }
+        return keys;
+    }
+
+    /** First place in {@code run} whose key is not below {@code bound} (or not at it either). */
+    private static int search(ColdSegment.Run run, Comparator<Key> order, Key bound, boolean inclusive) {
+        int low = 0;
+        int high = run.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int compared = order.compare(run.key(mid), bound);
+            if (compared < 0 || (!inclusive && compared == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** {@code candidate}, if it is smaller. */
+    private static Source smaller(Source current, Source candidate) {
+        return candidate.size < current.size ? candidate : current;
+    }
+
+    private static boolean matches(Incident incident, IncidentQuery query) {
+        if (query.getIpAddress() != null && !query.getIpAddress().equals(incident.getIpAddress())) {
+            return false;
+        }
+        if (query.getSeverity() != null && !query.getSeverity().equalsIgnoreCase(incident.getSeverity())) {
+            return false;
+        }
+        if (query.getStatus() != null && query.getStatus() != incident.getStatus()) {
+            return false;
+        }
+        int risk = incident.getRiskScore();
+        if ((query.getMinRisk() != null && risk < query.getMinRisk())
+                || (query.getMaxRisk() != null && risk > query.getMaxRisk())) {
+            return false;
+        }
+        LocalDateTime createdAt = incident.getCreatedAt();
+        if (query.getCreatedFrom() != null && (createdAt == null || createdAt.isBefore(query.getCreatedFrom()))) {
+            return false;
+        }
+        return query.getCreatedTo() == null || (createdAt != null && createdAt.isBefore(query.getCreatedTo()));
+    }
+
+    static String severityKey(String severity) {
+        return severity.toUpperCase(Locale.ROOT);
+    }
+
+    // ================= KEYS =================
+
+    /**
+     * Position of an incident in the indexes; doubles as the cursor.
+     */
+    static final class Key {
+
+        final int riskScore;
+        final long createdAt;
+        final String incidentId;
+
+        Key(int riskScore, long createdAt, String incidentId) {
+            this.riskScore = riskScore;
+            this.createdAt = createdAt;
+            this.incidentId = incidentId;
+        }
+
+        static Key of(Incident incident) {
+            LocalDateTime createdAt = incident.getCreatedAt();
+            return new Key(
+                    incident.getRiskScore(),
+                    createdAt == null ? Long.MIN_VALUE : IncidentCodec.epochNanos(createdAt),
+                    incident.getIncidentId()
+            );
+        }
+
+        /** Sorts before every incident created at {@code time}. */
+        static Key bound(LocalDateTime time) {
+            return new Key(0, IncidentCodec.epochNanos(time), "");
+        }
+
+        String encode() {
+            String plain = riskScore + ":" + createdAt + ":" + incidentId;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Key decode(String cursor) {
+            try {
+                String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = plain.split(":", 3);
+                return new Key(Integer.parseInt(parts[0]), Long.parseLong(parts[1]), parts[2]);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid incident cursor");
+            }
+        }
+    }
+
+    /**
+     * One index in memory and on every cold segment, with their total size.
+     * An absent posting matches nothing.
+     */
+    private static final class Source {
+
+        final Postings postings;
+        final List<ColdSegment.Run> runs = new ArrayList<>();
+        final long size;
+
+        Source(Postings postings, List<ColdSegment> cold, Function<ColdSegment, ColdSegment.Run> run) {
+            this.postings = postings == null ? Postings.EMPTY : postings;
+            long total = this.postings.size();
+            for (ColdSegment segment : cold) {
+                ColdSegment.Run found = run.apply(segment);
+                if (found.size() > 0) {
+                    runs.add(found);
+                    total += found.size();
+                }
+            }
+            this.size = total;
+        }
+    }
+
+    /** Keys of one source, in query order, with the next one at hand. */
+    private static final class KeyStream {
+
+        final ColdSegment.Run run;
+        private final Iterator<Key> memory;
+        private int next;
+        private final int end;
+        private final int step;
+        Key head;
+
+        KeyStream(Iterator<Key> memory) {
+            this.run = null;
+            this.memory = memory;
+            this.end = 0;
+            this.step = 0;
+        }
+
+        /** Places {@code from} (inclusive) to {@code to} (exclusive) of {@code run}. */
+        KeyStream(ColdSegment.Run run, int from, int to, boolean descending) {
+            this.run = run;
+            this.memory = null;
+            this.next = descending ? to - 1 : from;
+            this.end = descending ? from - 1 : to;
+            this.step = descending ? -1 : 1;
+        }
+
+        boolean advance() {
+            if (memory != null) {
+                if (!memory.hasNext()) {
+                    return false;
+                }
+                head = memory.next();
+                return true;
+            }
+            if (next == end || (step > 0 ? next > end : next < end)) {
+                return false;
+            }
+            head = run.key(next);
+            next += step;
+            return true;
+        }
+    }
+
+    /**
+     * A sorted key set with a size that is cheap to read, which the skip
+     * list's own {@code size()} is not.
+     */
+    private static final class Postings {
+
+        static final Postings EMPTY = new Postings(BY_TIME);
+
+        final ConcurrentSkipListSet<Key> keys;
+        private final AtomicInteger size = new AtomicInteger();
+
+        Postings(Comparator<Key> order) {
+            this.keys = new ConcurrentSkipListSet<>(order);
+        }
+
+        void add(Key key) {
+            if (keys.add(key)) {
+                size.incrementAndGet();
+            }
+        }
+
+        void remove(Key key) {
+            if (keys.remove(key)) {
+                size.decrementAndGet();
+            }
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        void clear() {
+            keys.clear();
+            size.set(0);
+        }
+    }
+}
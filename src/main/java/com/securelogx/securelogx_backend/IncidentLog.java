@@ -0,0 +1,225 @@
+package com.securelogx.securelogx_backend;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of incident changes, in numbered segments.
+ *
+ * Writers only copy their record into a buffer. One committer thread
+ * writes whatever has accumulated and forces it to disk, so concurrent
+ * writers share a single fsync; {@link #sync()} waits for the batch that
+ * holds the caller's records. Once a segment passes its size limit the
+ * committer starts the next one and reports the new number, which is the
+ * point a snapshot can be taken from.
+ *
+ * Segment layout: magic "SLXW" | version (1), then per record
+ * length (4) | CRC-32 (4) | payload.
+ */
+class IncidentLog implements Closeable {
+
+    static final byte[] MAGIC = {'S', 'L', 'X', 'W'};
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    private final Path dir;
+    private final long segmentLimit;
+    private final LongConsumer onRotated;
+    private final Object lock = new Object();
+    private final Thread committer;
+
+    // Guarded by lock
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private ByteArrayOutputStream spare = new ByteArrayOutputStream();
+    private long appended;
+    private long durable;
+    private IOException failure;
+    private boolean closed;
+    private boolean rollRequested;
+
+    // Committer thread only
+    private FileChannel segment;
+    private long segmentNumber;
+    private long segmentBytes;
+
+    /**
+     * Starts a new segment {@code firstSegment} in {@code dir}.
+     *
+     * @param onRotated called on the committer thread with the number of
+     *                  each new segment after the first
+     */
+    IncidentLog(Path dir, long firstSegment, long segmentLimit, LongConsumer onRotated) throws IOException {
+        this.dir = dir;
+        this.segmentLimit = segmentLimit;
+        this.onRotated = onRotated;
+        openSegment(firstSegment);
+
+        this.committer = new Thread(this::commitLoop, "securelogx-incident-log");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    static Path segmentPath(Path dir, long number) {
+        return dir.resolve(String.format("wal-%016d.log", number));
+    }
+
+    // ================= WRITING =================
+
+    /**
+     * Queues one record and returns its sequence number. Does not wait for
+     * the disk.
+     */
+    long append(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        synchronized (lock) {
+            if (failure != null) {
+                throw new UncheckedIOException("Incident log is unavailable", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Incident log is closed");
+            }
+            DataOutputStream out = new DataOutputStream(pending);
+            try {
+                out.writeInt(payload.length);
+                out.writeInt((int) crc.getValue());
+                out.write(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            appended++;
+            lock.notifyAll();
+            return appended;
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is on disk.
+     */
+    void sync() {
+        synchronized (lock) {
+            long target = appended;
+            while (durable < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for incident log"));
+                }
+            }
+            if (durable < target) {
+                throw new UncheckedIOException("Incident log is unavailable", failure);
+            }
+        }
+    }
+
+    /**
+     * Has the committer start a new segment after its next batch (now, if
+     * nothing is pending), so a snapshot follows a bulk change to the store.
+     */
+    void roll() {
+        synchronized (lock) {
+            rollRequested = true;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segment.close();
+    }
+
+    // ================= GROUP COMMIT =================
+
+    private void commitLoop() {
+        while (true) {
+            ByteArrayOutputStream batch;
+            long upTo;
+            boolean roll;
+            synchronized (lock) {
+                while (pending.size() == 0 && !closed && !rollRequested) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.size() == 0 && closed) {
+                    return;
+                }
+                // New records go to the other buffer while this one is written
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                upTo = appended;
+                roll = rollRequested;
+                rollRequested = false;
+            }
+
+            try {
+                batch.writeTo(Channels.newOutputStream(segment));
+                segment.force(false);
+                segmentBytes += batch.size();
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+            batch.reset();
+
+            synchronized (lock) {
+                durable = upTo;
+                lock.notifyAll();
+            }
+
+            if (roll || segmentBytes >= segmentLimit) {
+                try {
+                    segment.close();
+                    openSegment(segmentNumber + 1);
+                } catch (IOException e) {
+                    synchronized (lock) {
+                        failure = e;
+                        lock.notifyAll();
+                    }
+                    return;
+                }
+                onRotated.accept(segmentNumber);
+            }
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        segment = FileChannel.open(segmentPath(dir, number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).put(MAGIC).put((byte) VERSION).flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segment.force(false);
+        segmentNumber = number;
+        segmentBytes = HEADER_LENGTH;
+    }
+}
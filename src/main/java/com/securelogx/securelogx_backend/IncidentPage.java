@@ -0,0 +1,28 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.List;
+
+/**
+ * One page of an incident query.
+ *
+ * {@code nextCursor} is null on the last page. A page can be short (even
+ * empty) and still have a cursor when the query stopped at its scan limit.
+ */
+public class IncidentPage {
+
+    private final List<Incident> incidents;
+    private final String nextCursor;
+
+    public IncidentPage(List<Incident> incidents, String nextCursor) {
+        this.incidents = incidents;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Incident> getIncidents() {
+        return incidents;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,111 @@
+package com.securelogx.securelogx_backend;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters, order and position of one page of incidents.
+ *
+ * Unset filters match everything. The creation-time range is
+ * {@code [createdFrom, createdTo)}; the risk range is inclusive.
+ */
+public class IncidentQuery {
+
+    public enum Sort {
+        NEWEST,
+        OLDEST,
+        RISK
+    }
+
+    private String ipAddress;
+    private String severity;
+    private Incident.IncidentStatus status;
+    private Integer minRisk;
+    private Integer maxRisk;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private Sort sort = Sort.NEWEST;
+
+    // Opaque position returned with the previous page
+    private String cursor;
+    private int limit;
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    public Incident.IncidentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Incident.IncidentStatus status) {
+        this.status = status;
+    }
+
+    public Integer getMinRisk() {
+        return minRisk;
+    }
+
+    public void setMinRisk(Integer minRisk) {
+        this.minRisk = minRisk;
+    }
+
+    public Integer getMaxRisk() {
+        return maxRisk;
+    }
+
+    public void setMaxRisk(Integer maxRisk) {
+        this.maxRisk = maxRisk;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public void setSort(Sort sort) {
+        this.sort = sort;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
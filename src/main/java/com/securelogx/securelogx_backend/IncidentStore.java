@@ -0,0 +1,1096 @@
+package com.securelogx.securelogx_backend;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, in-memory incident store.
+ *
+ * Incidents are served from memory. Every creation and every timeline
+ * event (status changes included) is appended to an {@link IncidentLog};
+ * each time the log starts a new segment, a compact binary snapshot of
+ * all incidents is written in the background and the segments it covers
+ * are deleted. On startup the latest snapshot is memory-mapped and only
+ * the log segments after it are replayed.
+ *
+ * Snapshot layout: magic "SLXS" | version (2) | first segment not covered
+ * (8), then per incident length (4) | payload, then 0 (4) | count (8),
+ * then length (4) | evidence links added by redetections (artifact, id
+ * pairs; absent in version 1).
+ * Replay is idempotent and order-insensitive: every event carries its
+ * timeline position, appends to one incident from several threads can
+ * reach the log in either order, and a snapshot may already include the
+ * start of the next segment.
+ *
+ * Queries by IP, severity, status, risk and creation time go through an
+ * {@link IncidentIndex} kept in step with every write.
+ *
+ * Closed incidents with no activity for {@link Config#getColdIncidentAgeDays()}
+ * days move to read-only {@link ColdSegment}s and leave the map, the
+ * index, the artifact links and the snapshots. Reads, queries and
+ * artifact lookups still find them through each segment's own postings,
+ * decoded from the mapping on demand, and a write brings one back into
+ * memory. Newer segments win over older ones and memory over all of them;
+ * small segments are merged from time to time.
+ */
+public class IncidentStore implements Incident.Journal, Closeable {
+
+    static final byte[] SNAPSHOT_MAGIC = {'S', 'L', 'X', 'S'};
+    static final int SNAPSHOT_VERSION = 2;
+
+    private static final byte CREATED = 1;
+    private static final byte RECORDED = 2;
+    private static final byte REDETECTED = 3;
+    private static final long MAP_WINDOW = 1L << 30;
+
+    private final Path dir;
+    private final Map<String, Incident> incidents = new ConcurrentHashMap<>();
+
+    // Artifact path -> ids of the incidents it is evidence for
+    private final Map<String, Set<String>> incidentsByArtifact = new ConcurrentHashMap<>();
+    private final IncidentIndex index = new IncidentIndex();
+
+    // Replay only: events logged before their incident's creation record
+    private final Map<String, List<Consumer<Incident>>> awaitingCreation = new HashMap<>();
+
+    // Cold tier, newest segment first; replaced whole, only on the maintenance thread
+    private volatile List<ColdSegment> cold = List.of();
+    private long lastColdSegment;
+    private final AtomicLong coldOnly = new AtomicLong();
+
+    private final IncidentLog log;
+
+    // Snapshots and cold tiering, one at a time
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "securelogx-incident-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IncidentStore(Path dir) {
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+            long started = System.nanoTime();
+            for (Path partial : numbered("snapshot-", ".bin.tmp").values()) {
+                Files.deleteIfExists(partial);
+            }
+            openColdSegments();
+
+            // 1️⃣ Latest readable snapshot, then the log written after it
+            long covered = loadLatestSnapshot();
+            long replayed = 0;
+            long lastSegment = 0;
+            for (long segment : numbered("wal-", ".log").keySet()) {
+                lastSegment = segment;
+                if (segment >= covered) {
+                    replayed += replaySegment(IncidentLog.segmentPath(dir, segment));
+                }
+            }
+            if (!awaitingCreation.isEmpty()) {
+                System.err.println("Dropping logged events of " + awaitingCreation.size()
+                        + " incidents whose creation was not logged");
+                awaitingCreation.clear();
+            }
+            for (Incident incident : incidents.values()) {
+                if (replayed > 0) {
+                    incident.replayed();
+                }
+                incident.attach(this);
+            }
+            registerColdIncidents();
+
+            // 2️⃣ New writes go to a fresh segment
+            long next = Math.max(Math.max(lastSegment + 1, covered), 1);
+            this.log = new IncidentLog(dir, next, Config.getIncidentLogSegmentBytes(), this::snapshotFrom);
+            if (replayed > 0) {
+                snapshotFrom(next);
+            }
+
+            long interval = Config.getColdTierIntervalMinutes();
+            maintenance.scheduleWithFixedDelay(this::tierQuietly, interval, interval, TimeUnit.MINUTES);
+
+            System.out.println("✅ Restored " + incidents.size() + " incidents (" + replayed
+                    + " log records) and " + coldOnly.get() + " cold incidents in "
+                    + (System.nanoTime() - started) / 1_000_000 + " ms");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open incident store " + dir, e);
+        }
+    }
+
+    // ================= READS =================
+
+    /**
+     * The incident, from memory or else from the newest cold segment that
+     * has it. A cold incident is decoded for this call only.
+     */
+    public Incident get(String incidentId) {
+        Incident incident = incidents.get(incidentId);
+        if (incident != null) {
+            return incident;
+        }
+        for (ColdSegment segment : cold) {
+            int n = segment.find(incidentId);
+            if (n >= 0) {
+                Incident thawed = ColdSegment.incident(segment.record(n));
+                // Brought back by a write while we were decoding
+                Incident hot = incidents.get(incidentId);
+                if (hot != null) {
+                    return hot;
+                }
+                thawed.attach(this);
+                return thawed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Every incident: those in memory, then cold ones decoded one at a
+     * time as the iteration reaches them.
+     */
+    public Collection<Incident> values() {
+        List<ColdSegment> segments = cold;
+        if (segments.isEmpty()) {
+            return incidents.values();
+        }
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Incident> iterator() {
+                return new AllIncidents(segments);
+            }
+
+            @Override
+            public int size() {
+                return IncidentStore.this.size();
+            }
+        };
+    }
+
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, incidents.size() + coldOnly.get());
+    }
+
+    /**
+     * Incidents whose forensic artifact is {@code artifactPath}.
+     */
+    public List<Incident> byArtifact(String artifactPath) {
+        List<Incident> found = new ArrayList<>();
+        for (String id : incidentsByArtifact.getOrDefault(artifactPath, Set.of())) {
+            Incident incident = get(id);
+            if (incident != null) {
+                found.add(incident);
+            }
+        }
+        List<ColdSegment> segments = cold;
+        for (ColdSegment segment : segments) {
+            ColdSegment.Run run = segment.byArtifact(artifactPath);
+            for (int i = 0; i < run.size(); i++) {
+                int n = run.get(i);
+                if (current(segments, segment, segment.id(n))) {
+                    Incident incident = ColdSegment.incident(segment.record(n));
+                    incident.attach(this);
+                    found.add(incident);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * One page of incidents matching {@code query}, read through the
+     * secondary indexes.
+     */
+    public IncidentPage query(IncidentQuery query) {
+        if (query.getLimit() < 1 || query.getLimit() > Config.getMaxIncidentPageSize()) {
+            throw new IllegalArgumentException(
+                    "Page size must be between 1 and " + Config.getMaxIncidentPageSize()
+            );
+        }
+        List<ColdSegment> segments = cold;
+        return index.query(query, segments, (segment, id) -> current(segments, segment, id),
+                this::get, Config.getIncidentQueryScanLimit());
+    }
+
+    // ================= WRITES =================
+
+    /**
+     * Stores detected incidents and returns the stored ones once the change
+     * is on disk. A detection whose ID is already stored is folded into that
+     * incident instead of being added again.
+     */
+    public List<Incident> upsert(Collection<Incident> detected) {
+        List<Incident> stored = new ArrayList<>(detected.size());
+        for (Incident incident : detected) {
+            Incident existing = get(incident.getIncidentId());
+            if (existing != null) {
+                existing = promote(existing);
+            } else {
+                // Visible before it is logged, so a snapshot taken in between has it
+                incident.attach(this);
+                existing = incidents.putIfAbsent(incident.getIncidentId(), incident);
+            }
+            if (existing == null) {
+                indexNew(incident);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                try {
+                    out.writeByte(CREATED);
+                    new IncidentCodec().writeIncident(out, incident, incident.getTimeline());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                log.append(bytes.toByteArray());
+                stored.add(incident);
+            } else {
+                int oldRisk = existing.getRiskScore();
+                String oldSeverity = existing.getSeverity();
+                existing.redetected(incident.getFailedAttempts(), incident.getSeverity(), incident.getArtifactPath());
+                index.update(existing, oldRisk, oldSeverity);
+                stored.add(existing);
+            }
+        }
+        log.sync();
+        return stored;
+    }
+
+    /**
+     * Returns once every change made so far is on disk. Concurrent callers
+     * share one fsync.
+     */
+    public void sync() {
+        log.sync();
+    }
+
+    @Override
+    public void recorded(
+            List<Incident> changed,
+            int[] positions,
+            Incident.TimelineEvent event,
+            Incident.IncidentStatus newStatus
+    ) {
+        // A cold incident comes back; a stale copy hands its event to the live one
+        boolean copied = false;
+        for (int i = 0; i < changed.size(); i++) {
+            Incident live = promote(changed.get(i));
+            if (live != changed.get(i)) {
+                if (!copied) {
+                    changed = new ArrayList<>(changed);
+                    positions = positions.clone();
+                    copied = true;
+                }
+                changed.set(i, live);
+                positions[i] = live.adopt(event);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        IncidentCodec codec = new IncidentCodec();
+        try {
+            out.writeByte(RECORDED);
+            out.writeByte(newStatus == null ? -1 : newStatus.ordinal());
+            codec.writeEvent(out, event);
+            out.writeInt(changed.size());
+            for (int i = 0; i < positions.length; i++) {
+                codec.writeString(out, changed.get(i).getIncidentId());
+                out.writeInt(positions[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.append(bytes.toByteArray());
+
+        if (newStatus != null) {
+            changed.forEach(index::statusChanged);
+        }
+    }
+
+    @Override
+    public void redetected(
+            Incident incident,
+            int position,
+            Incident.TimelineEvent event,
+            int failedAttempts,
+            String severity,
+            String artifactPath
+    ) {
+        Incident live = promote(incident);
+        if (live != incident) {
+            live.redetected(failedAttempts, severity, artifactPath);
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        IncidentCodec codec = new IncidentCodec();
+        try {
+            out.writeByte(REDETECTED);
+            codec.writeString(out, incident.getIncidentId());
+            out.writeInt(position);
+            codec.writeEvent(out, event);
+            out.writeInt(failedAttempts);
+            codec.writeString(out, severity);
+            codec.writeString(out, artifactPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.append(bytes.toByteArray());
+
+        // Decrypting the new artifact is an access to this incident's evidence too
+        link(artifactPath, incident.getIncidentId());
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+        // Let a snapshot or tiering pass in progress finish rather than leave a partial file
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ================= SNAPSHOTS =================
+
+    /**
+     * Writes a snapshot for replay from {@code segment} in the background.
+     */
+    private void snapshotFrom(long segment) {
+        maintenance.execute(() -> {
+            try {
+                writeSnapshot(segment);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Incident snapshot failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void writeSnapshot(long segment) throws IOException {
+        Path target = snapshotPath(segment);
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+
+        IncidentCodec codec = new IncidentCodec();
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(record);
+        long count = 0;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))) {
+
+            out.write(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_VERSION);
+            out.writeLong(segment);
+            for (Incident incident : incidents.values()) {
+                record.reset();
+                codec.writeIncident(recordOut, incident, incident.getTimeline());
+                out.writeInt(record.size());
+                record.writeTo(out);
+                count++;
+            }
+            out.writeInt(0);
+            out.writeLong(count);
+
+            record.reset();
+            for (Map.Entry<String, Set<String>> artifact : incidentsByArtifact.entrySet()) {
+                for (String incidentId : artifact.getValue()) {
+                    Incident incident = incidents.get(incidentId);
+                    if (incident != null && !artifact.getKey().equals(incident.getArtifactPath())) {
+                        codec.writeString(recordOut, artifact.getKey());
+                        codec.writeString(recordOut, incidentId);
+                    }
+                }
+            }
+            out.writeInt(record.size());
+            record.writeTo(out);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        // Older snapshots and the segments this one covers are obsolete
+        for (Map.Entry<Long, Path> old : numbered("snapshot-", ".bin").headMap(segment).entrySet()) {
+            Files.deleteIfExists(old.getValue());
+        }
+        for (Map.Entry<Long, Path> old : numbered("wal-", ".log").headMap(segment).entrySet()) {
+            Files.deleteIfExists(old.getValue());
+        }
+    }
+
+    /**
+     * Loads the newest snapshot that reads back cleanly and returns the
+     * first log segment it does not cover (0 without a snapshot).
+     */
+    private long loadLatestSnapshot() throws IOException {
+        List<Map.Entry<Long, Path>> candidates = new ArrayList<>(numbered("snapshot-", ".bin").entrySet());
+        for (int i = candidates.size() - 1; i >= 0; i--) {
+            Path snapshot = candidates.get(i).getValue();
+            try {
+                return loadSnapshot(snapshot);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping unreadable incident snapshot " + snapshot + ": " + e.getMessage());
+                incidents.clear();
+                incidentsByArtifact.clear();
+                index.clear();
+            }
+        }
+        return 0;
+    }
+
+    private long loadSnapshot(Path snapshot) throws IOException {
+        try (MappedInput in = new MappedInput(snapshot)) {
+            ByteBuffer header = in.take(SNAPSHOT_MAGIC.length + 1 + 8);
+            byte[] magic = new byte[SNAPSHOT_MAGIC.length];
+            header.get(magic);
+            byte version = header.get();
+            if (!Arrays.equals(magic, SNAPSHOT_MAGIC) || version < 1 || version > SNAPSHOT_VERSION) {
+                throw new IOException("Not an incident snapshot");
+            }
+            long segment = header.getLong();
+
+            IncidentCodec codec = new IncidentCodec();
+            long count = 0;
+            for (int length = in.take(4).getInt(); length != 0; length = in.take(4).getInt()) {
+                put(codec.readIncident(in.take(length)));
+                count++;
+            }
+            if (in.take(8).getLong() != count) {
+                throw new IOException("Incident snapshot is incomplete");
+            }
+            if (version >= 2) {
+                ByteBuffer links = in.take(in.take(4).getInt());
+                while (links.hasRemaining()) {
+                    link(codec.readString(links), codec.readString(links));
+                }
+            }
+            if (in.remaining() != 0) {
+                throw new IOException("Incident snapshot is incomplete");
+            }
+            return segment;
+        }
+    }
+
+    // ================= COLD TIER =================
+
+    /**
+     * Moves closed incidents quiet for longer than the configured age to
+     * the cold tier now and returns how many moved. Runs on the
+     * maintenance thread, like the scheduled passes.
+     */
+    public int moveColdIncidents() {
+        try {
+            return maintenance.submit(this::tier).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while moving incidents to the cold tier", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+            throw new IllegalStateException("Cold tiering failed", e.getCause());
+        }
+    }
+
+    private void tierQuietly() {
+        try {
+            tier();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cold tiering failed: " + e.getMessage());
+        }
+    }
+
+    private int tier() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(Config.getColdIncidentAgeDays());
+        List<Incident> quiet = new ArrayList<>();
+        for (Incident incident : incidents.values()) {
+            LocalDateTime lastActivity = incident.lastActivity();
+            if (incident.getStatus() == Incident.IncidentStatus.CLOSED
+                    && lastActivity != null && !lastActivity.isAfter(cutoff)) {
+                quiet.add(incident);
+            }
+        }
+        int moved = quiet.isEmpty() ? 0 : moveToCold(quiet);
+        if (moved > 0) {
+            // The next snapshot leaves them out, and restarts stop replaying them
+            log.roll();
+        }
+        mergeColdSegments();
+        return moved;
+    }
+
+    private int moveToCold(List<Incident> quiet) throws IOException {
+        quiet.sort(Comparator.comparing(Incident::getIncidentId));
+        Set<String> ids = new HashSet<>();
+        quiet.forEach(incident -> ids.add(incident.getIncidentId()));
+        Map<String, List<String>> artifacts = new HashMap<>();
+        for (Map.Entry<String, Set<String>> artifact : incidentsByArtifact.entrySet()) {
+            for (String incidentId : artifact.getValue()) {
+                if (ids.contains(incidentId)) {
+                    artifacts.computeIfAbsent(incidentId, id -> new ArrayList<>()).add(artifact.getKey());
+                }
+            }
+        }
+
+        // 1️⃣ Write them out in ID order, remembering how far each timeline went
+        int[] timelineSizes = new int[quiet.size()];
+        List<ColdSegment> written;
+        try (ColdOutput out = new ColdOutput()) {
+            for (int i = 0; i < quiet.size(); i++) {
+                Incident incident = quiet.get(i);
+                List<Incident.TimelineEvent> timeline = incident.getTimeline();
+                List<String> others = new ArrayList<>(artifacts.getOrDefault(incident.getIncidentId(), List.of()));
+                others.remove(incident.getArtifactPath());
+                timelineSizes[i] = timeline.size();
+                out.add(ByteBuffer.wrap(ColdSegment.encode(incident, timeline, others)));
+            }
+            written = out.finish();
+        }
+
+        // 2️⃣ Readable from the cold tier before they leave memory
+        publishCold(written, List.of());
+
+        // 3️⃣ Drop the in-memory copies nobody wrote to meanwhile
+        int moved = 0;
+        for (int i = 0; i < quiet.size(); i++) {
+            Incident incident = quiet.get(i);
+            if (evict(incident, timelineSizes[i], artifacts.getOrDefault(incident.getIncidentId(), List.of()))) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Takes {@code incident} out of memory, the index and the artifact
+     * links if its timeline is still {@code timelineSize} long. Done inside
+     * the map's lock for the ID, so it cannot interleave with
+     * {@link #promote}.
+     */
+    private boolean evict(Incident incident, int timelineSize, List<String> artifacts) {
+        boolean[] evicted = new boolean[1];
+        incidents.computeIfPresent(incident.getIncidentId(), (id, current) -> {
+            if (current != incident || current.getTimeline().size() != timelineSize) {
+                return current;
+            }
+            index.remove(current);
+            artifacts.forEach(artifact -> unlink(artifact, id));
+            evicted[0] = true;
+            return null;
+        });
+        if (evicted[0]) {
+            coldOnly.incrementAndGet();
+        }
+        return evicted[0];
+    }
+
+    /**
+     * The copy of {@code incident} that writes go to: the one in memory,
+     * or this one, back in memory and the index, if the incident was cold.
+     */
+    private Incident promote(Incident incident) {
+        Incident live = incidents.get(incident.getIncidentId());
+        if (live != null) {
+            return live;
+        }
+        return incidents.computeIfAbsent(incident.getIncidentId(), id -> {
+            index.add(incident);
+            link(incident.getArtifactPath(), id);
+            for (ColdSegment segment : cold) {
+                int n = segment.find(id);
+                if (n >= 0) {
+                    ColdSegment.artifacts(segment.record(n)).forEach(artifact -> link(artifact, id));
+                    break;
+                }
+            }
+            coldOnly.decrementAndGet();
+            return incident;
+        });
+    }
+
+    /**
+     * Merges the small segments into as few as the size limit allows, once
+     * there are enough of them. Only the newest copy of each incident is
+     * kept, and none that a newer unmerged segment replaces.
+     */
+    private void mergeColdSegments() throws IOException {
+        long limit = Config.getColdSegmentBytes();
+        List<ColdSegment> small = new ArrayList<>();
+        List<ColdSegment> kept = new ArrayList<>();
+        for (ColdSegment segment : cold) {
+            (segment.sizeBytes() < limit / 2 ? small : kept).add(segment);
+        }
+        if (small.size() < Config.getColdSegmentMergeThreshold()) {
+            return;
+        }
+
+        // One cursor per input, by ID and then newest first
+        PriorityQueue<ColdCursor> cursors = new PriorityQueue<>(Comparator
+                .comparing((ColdCursor cursor) -> cursor.id)
+                .thenComparing(cursor -> -cursor.segment.number()));
+        for (ColdSegment segment : small) {
+            if (segment.count() > 0) {
+                cursors.add(new ColdCursor(segment));
+            }
+        }
+        List<ColdSegment> written;
+        try (ColdOutput out = new ColdOutput()) {
+            String lastId = null;
+            while (!cursors.isEmpty()) {
+                ColdCursor cursor = cursors.poll();
+                if (!cursor.id.equals(lastId) && !shadowed(kept, cursor.segment.number(), cursor.id)) {
+                    out.add(cursor.segment.record(cursor.position));
+                }
+                lastId = cursor.id;
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+            written = out.finish();
+        }
+
+        publishCold(written, small);
+        for (ColdSegment segment : small) {
+            // Readers still holding the mapping keep it until they drop it
+            Files.deleteIfExists(segment.path());
+        }
+    }
+
+    /** Adds segments newer than all others and drops {@code replaced}. */
+    private void publishCold(List<ColdSegment> added, List<ColdSegment> replaced) {
+        List<ColdSegment> next = new ArrayList<>(added);
+        Collections.reverse(next);
+        for (ColdSegment segment : cold) {
+            if (!replaced.contains(segment)) {
+                next.add(segment);
+            }
+        }
+        cold = List.copyOf(next);
+    }
+
+    /**
+     * Whether {@code segment} holds the current copy of {@code incidentId}:
+     * it is not in memory, and no newer segment of {@code segments} has it.
+     */
+    private boolean current(List<ColdSegment> segments, ColdSegment segment, String incidentId) {
+        return !incidents.containsKey(incidentId) && !shadowed(segments, segment.number(), incidentId);
+    }
+
+    /** Whether a segment newer than {@code number} holds {@code incidentId}. */
+    private static boolean shadowed(List<ColdSegment> segments, long number, String incidentId) {
+        for (ColdSegment segment : segments) {
+            if (segment.number() > number && segment.find(incidentId) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void openColdSegments() throws IOException {
+        for (Path partial : numbered("cold-", ".seg.tmp").values()) {
+            Files.deleteIfExists(partial);
+        }
+        List<ColdSegment> segments = new ArrayList<>();
+        for (long number : numbered("cold-", ".seg").descendingKeySet()) {
+            lastColdSegment = Math.max(lastColdSegment, number);
+            try {
+                segments.add(ColdSegment.open(dir, number));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Skipping unreadable cold incident segment "
+                        + ColdSegment.path(dir, number) + ": " + e.getMessage());
+            }
+        }
+        cold = List.copyOf(segments);
+    }
+
+    /**
+     * Counts the cold incidents, once replay is done. A closed incident
+     * that a snapshot or the log from before its move brought back into
+     * memory unchanged leaves memory again: timelines only grow, so an
+     * equal length means an equal copy.
+     */
+    private void registerColdIncidents() {
+        List<ColdSegment> segments = cold;
+        for (ColdSegment segment : segments) {
+            for (int n = 0; n < segment.count(); n++) {
+                String incidentId = segment.id(n);
+                if (shadowed(segments, segment.number(), incidentId)) {
+                    continue;
+                }
+                Incident hot = incidents.get(incidentId);
+                if (hot != null) {
+                    ByteBuffer record = segment.record(n);
+                    if (hot.getStatus() != Incident.IncidentStatus.CLOSED
+                            || hot.getTimeline().size() != ColdSegment.incident(record).getTimeline().size()) {
+                        continue;
+                    }
+                    List<String> artifacts = ColdSegment.artifacts(record);
+                    incidents.remove(incidentId);
+                    index.remove(hot);
+                    artifacts.forEach(artifact -> unlink(artifact, incidentId));
+                }
+                coldOnly.incrementAndGet();
+            }
+        }
+    }
+
+    /** Replay only: brings a cold incident back into memory, links included. */
+    private Incident thaw(String incidentId) {
+        for (ColdSegment segment : cold) {
+            int n = segment.find(incidentId);
+            if (n >= 0) {
+                ByteBuffer record = segment.record(n);
+                Incident incident = ColdSegment.incident(record);
+                put(incident);
+                ColdSegment.artifacts(record).forEach(artifact -> link(artifact, incidentId));
+                return incident;
+            }
+        }
+        return null;
+    }
+
+    // ================= REPLAY =================
+
+    /**
+     * Applies the intact records of one segment. A torn last record, left
+     * by a crash mid-write, ends the segment.
+     */
+    private long replaySegment(Path segment) throws IOException {
+        long records = 0;
+        try (MappedInput in = new MappedInput(segment)) {
+            if (in.remaining() < IncidentLog.HEADER_LENGTH) {
+                return 0;
+            }
+            ByteBuffer header = in.take(IncidentLog.HEADER_LENGTH);
+            byte[] magic = new byte[IncidentLog.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, IncidentLog.MAGIC) || header.get() != IncidentLog.VERSION) {
+                throw new IOException("Not an incident log segment: " + segment);
+            }
+
+            while (in.remaining() >= 8) {
+                ByteBuffer frame = in.take(8);
+                int length = frame.getInt();
+                int crc = frame.getInt();
+                if (length < 1 || length > in.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = in.take(length);
+                CRC32 check = new CRC32();
+                check.update(payload.duplicate());
+                if ((int) check.getValue() != crc) {
+                    break;
+                }
+                apply(payload);
+                records++;
+            }
+            if (in.remaining() > 0) {
+                System.err.println("Ignoring torn tail of incident log " + segment);
+            }
+        }
+        return records;
+    }
+
+    private void apply(ByteBuffer record) throws IOException {
+        IncidentCodec codec = new IncidentCodec();
+        byte type = record.get();
+        if (type == CREATED) {
+            Incident incident = codec.readIncident(record);
+            if (!incidents.containsKey(incident.getIncidentId())) {
+                put(incident);
+                List<Consumer<Incident>> waiting = awaitingCreation.remove(incident.getIncidentId());
+                if (waiting != null) {
+                    waiting.forEach(change -> change.accept(incident));
+                }
+            }
+        } else if (type == RECORDED) {
+            byte status = record.get();
+            Incident.IncidentStatus newStatus = status < 0 ? null : IncidentCodec.status(status);
+            Incident.TimelineEvent event = codec.readEvent(record);
+            int count = record.getInt();
+            for (int i = 0; i < count; i++) {
+                String incidentId = codec.readString(record);
+                int position = record.getInt();
+                whenCreated(incidentId, incident -> {
+                    incident.replay(position, event, newStatus);
+                    if (newStatus != null) {
+                        index.statusChanged(incident);
+                    }
+                });
+            }
+        } else if (type == REDETECTED) {
+            String incidentId = codec.readString(record);
+            int position = record.getInt();
+            Incident.TimelineEvent event = codec.readEvent(record);
+            int attempts = record.getInt();
+            String severity = codec.readString(record);
+            String artifactPath = codec.readString(record);
+            whenCreated(incidentId, incident -> {
+                int oldRisk = incident.getRiskScore();
+                String oldSeverity = incident.getSeverity();
+                incident.replayRedetection(position, event, attempts, severity);
+                index.update(incident, oldRisk, oldSeverity);
+                link(artifactPath, incidentId);
+            });
+        } else {
+            throw new IOException("Unknown incident log record: " + type);
+        }
+    }
+
+    /**
+     * Applies {@code change} now, or once the incident's creation record is
+     * replayed: a new incident is visible (and can change) just before its
+     * creation is logged.
+     */
+    private void whenCreated(String incidentId, Consumer<Incident> change) {
+        Incident incident = incidents.get(incidentId);
+        if (incident == null) {
+            incident = thaw(incidentId);
+        }
+        if (incident != null) {
+            change.accept(incident);
+        } else {
+            awaitingCreation.computeIfAbsent(incidentId, id -> new ArrayList<>()).add(change);
+        }
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    private void put(Incident incident) {
+        incidents.put(incident.getIncidentId(), incident);
+        indexNew(incident);
+    }
+
+    private void indexNew(Incident incident) {
+        index.add(incident);
+        link(incident.getArtifactPath(), incident.getIncidentId());
+    }
+
+    private void link(String artifactPath, String incidentId) {
+        if (artifactPath != null) {
+            // Inside compute, so a set emptied by unlink() is not added to
+            incidentsByArtifact.compute(artifactPath, (path, ids) -> {
+                Set<String> linked = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                linked.add(incidentId);
+                return linked;
+            });
+        }
+    }
+
+    private void unlink(String artifactPath, String incidentId) {
+        incidentsByArtifact.computeIfPresent(artifactPath, (path, ids) -> {
+            ids.remove(incidentId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private Path snapshotPath(long segment) {
+        return dir.resolve(String.format("snapshot-%016d.bin", segment));
+    }
+
+    /** Files named {@code prefix + number + suffix}, by number. */
+    private TreeMap<Long, Path> numbered(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), file);
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return files;
+    }
+
+    /** Cold segments written in order, each closed at the size limit. */
+    private final class ColdOutput implements Closeable {
+
+        private final List<ColdSegment> written = new ArrayList<>();
+        private ColdSegment.Writer writer;
+
+        void add(ByteBuffer record) throws IOException {
+            if (writer == null) {
+                writer = new ColdSegment.Writer(dir, ++lastColdSegment);
+            }
+            writer.add(record);
+            if (writer.size() >= Config.getColdSegmentBytes()) {
+                written.add(writer.finish());
+                writer = null;
+            }
+        }
+
+        List<ColdSegment> finish() throws IOException {
+            if (writer != null) {
+                written.add(writer.finish());
+                writer = null;
+            }
+            return written;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /** Position in one segment during a merge. */
+    private static final class ColdCursor {
+
+        final ColdSegment segment;
+        int position;
+        String id;
+
+        ColdCursor(ColdSegment segment) {
+            this.segment = segment;
+            this.id = segment.id(0);
+        }
+
+        boolean advance() {
+            if (++position == segment.count()) {
+                return false;
+            }
+            id = segment.id(position);
+            return true;
+        }
+    }
+
+    /**
+     * Incidents in memory, then every cold one that memory or a newer
+     * segment does not replace, decoded as it is reached.
+     */
+    private final class AllIncidents implements Iterator<Incident> {
+
+        private final Iterator<Incident> hot = incidents.values().iterator();
+        private final List<ColdSegment> segments;
+        private int segment;
+        private int position;
+        private Incident next;
+
+        AllIncidents(List<ColdSegment> segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (hot.hasNext()) {
+                next = hot.next();
+                return true;
+            }
+            while (segment < segments.size()) {
+                ColdSegment current = segments.get(segment);
+                if (position == current.count()) {
+                    segment++;
+                    position = 0;
+                    continue;
+                }
+                int n = position++;
+                if (current(segments, current, current.id(n))) {
+                    next = ColdSegment.incident(current.record(n));
+                    next.attach(IncidentStore.this);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Incident next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Incident incident = next;
+            next = null;
+            return incident;
+        }
+    }
+
+    /**
+     * Sequential reads from a memory-mapped file, remapped in windows so
+     * files over 2 GiB can be read too.
+     */
+    private static class MappedInput implements Closeable {
+
+        private final FileChannel channel;
+        private final long size;
+        private long base;
+        private MappedByteBuffer window;
+
+        MappedInput(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAP_WINDOW));
+        }
+
+        long remaining() {
+            return size - base - window.position();
+        }
+
+        /** The next {@code length} bytes, as a view of the mapping. */
+        ByteBuffer take(int length) throws IOException {
+            if (length < 0 || length > remaining()) {
+                throw new EOFException("Unexpected end of incident data");
+            }
+            if (window.remaining() < length) {
+                base += window.position();
+                window = channel.map(FileChannel.MapMode.READ_ONLY, base,
+                        Math.min(size - base, Math.max(MAP_WINDOW, length)));
+            }
+            ByteBuffer slice = window.slice(window.position(), length);
+            window.position(window.position() + length);
+            return slice;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.securelogx.securelogx_backend;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Append-only incident timeline that never blocks, packed into longs,
+ * together with the incident's lifecycle status.
+ *
+ * Each event takes two words: action (8 bits), actor (24 bits) and note
+ * (32 bits), then the time in epoch milliseconds. Actions, actors and the
+ * fixed notes of {@link #FIXED_NOTE_ACTIONS} are {@link TimelineDictionary}
+ * numbers plus one, so 0 means null or an empty slot. Any other note, such
+ * as an analyst's text or an access reason with byte offsets, is kept in
+ * this timeline's own {@code String} blocks at the event's position and the
+ * note bits hold {@link #TEXT}, so it goes away with the incident instead
+ * of growing the process-wide dictionary. {@link Incident.TimelineEvent}
+ * objects are only made when a snapshot is read, e.g. while serialising.
+ *
+ * Events live in blocks that double in size, starting at
+ * {@link #FIRST_BLOCK} events, so nothing is ever copied but the short
+ * array of block references when a block is added. The published state is
+ * the (blocks, length, status) triple; slots below the length never change.
+ * An append claims the slot at the published length with a compare-and-set
+ * on its first word, fills the rest and then publishes the next length.
+ * Only the slot's owner can publish, so positions are exact, and a status
+ * change is published with its event, so two quick transitions can never
+ * reach the timeline in the wrong order. An append that finds the slot
+ * claimed spins for the few stores its owner has left. Readers take the
+ * current state as a snapshot and never see a half-written event.
+ */
+final class IncidentTimeline {
+
+    private static final int WORDS = 2;
+    private static final int FIRST_BLOCK = 4;
+    private static final long TEXT = 1L << 31;
+    private static final long[][] NO_BLOCKS = new long[0][];
+    private static final Incident.IncidentStatus[] STATUSES = Incident.IncidentStatus.values();
+
+    /** Actions whose notes come from a small fixed set. */
+    private static final Set<String> FIXED_NOTE_ACTIONS = Set.of(
+            "INCIDENT_CREATED", "ARTIFACT_CREATED", "STATUS_SET", "STATUS_CHANGED"
+    );
+
+    private static final VarHandle STATE;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(IncidentTimeline.class, "state", State.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile State state;
+
+    IncidentTimeline(Incident.IncidentStatus status) {
+        this.state = new State(0, status.ordinal(), NO_BLOCKS, null);
+    }
+
+    IncidentTimeline(Incident.IncidentStatus status, List<Incident.TimelineEvent> events) {
+        State loaded = new State(0, status.ordinal(), NO_BLOCKS, null);
+        for (int i = 0; i < events.size(); i++) {
+            Incident.TimelineEvent event = events.get(i);
+            loaded = loaded.put(i, word(event), millis(event), isText(event) ? event.getNote() : null);
+        }
+        this.state = loaded;
+    }
+
+    /** Appends {@code event} and returns its position. */
+    int append(Incident.TimelineEvent event) {
+        return add(null, null, event);
+    }
+
+    /**
+     * Moves the status from {@code from} to {@code to} and appends
+     * {@code event} in one step. Returns the event's position, or -1 if
+     * the status was no longer {@code from}.
+     */
+    int transition(Incident.IncidentStatus from, Incident.IncidentStatus to, Incident.TimelineEvent event) {
+        return add(from, to, event);
+    }
+
+    private int add(Incident.IncidentStatus from, Incident.IncidentStatus to, Incident.TimelineEvent event) {
+        Objects.requireNonNull(event.getAction(), "Timeline events need an action");
+        long word = word(event);
+        long time = millis(event);
+        String text = isText(event) ? event.getNote() : null;
+
+        while (true) {
+            State current = state;
+            if (from != null && current.status != from.ordinal()) {
+                return -1;
+            }
+            int position = current.length;
+            int block = block(position);
+            if (block == current.blocks.length) {
+                // Full: add a block; whoever loses the race uses the winner's
+                STATE.compareAndSet(this, current, current.withBlock());
+                continue;
+            }
+
+            // 1️⃣ Claim the slot; the status cannot move until we publish
+            long[] words = current.blocks[block];
+            int at = offset(position, block) * WORDS;
+            if (!SLOT.compareAndSet(words, at, 0L, word)) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            // 2️⃣ Fill it, then publish it with the new length and status
+            try {
+                words[at + 1] = time;
+                State published = text == null ? current : current.withText(position, block, text);
+                STATE.setVolatile(this, new State(position + 1,
+                        to == null ? current.status : to.ordinal(), published.blocks, published.texts));
+                return position;
+            } catch (Throwable e) {
+                // Hand the slot back rather than leave the others spinning
+                SLOT.setVolatile(words, at, 0L);
+                throw e;
+            }
+        }
+    }
+
+    Incident.IncidentStatus status() {
+        return STATUSES[state.status];
+    }
+
+    /** The events appended so far; the list never changes afterwards. */
+    List<Incident.TimelineEvent> snapshot() {
+        return new Snapshot(state);
+    }
+
+    /** Time of the first event, or null for an empty timeline. */
+    LocalDateTime firstTimestamp() {
+        State current = state;
+        return current.length == 0 ? null : fromEpochMillis(current.blocks[0][1]);
+    }
+
+    /** Time of the latest event, or null for an empty timeline. */
+    LocalDateTime lastTimestamp() {
+        State current = state;
+        if (current.length == 0) {
+            return null;
+        }
+        int block = block(current.length - 1);
+        return fromEpochMillis(current.blocks[block][offset(current.length - 1, block) * WORDS + 1]);
+    }
+
+    // ================= REPLAY =================
+
+    /**
+     * Puts a logged event back at {@code position} unless one is there.
+     * Only used while a store loads, before the incident is shared; blocks
+     * are added up to the position and {@link #compact()} drops the gaps.
+     */
+    void place(int position, Incident.TimelineEvent event) {
+        State current = state;
+        int block = block(position);
+        if (block < current.blocks.length && current.blocks[block][offset(position, block) * WORDS] != 0) {
+            return;
+        }
+        state = current.put(position, word(event), millis(event), isText(event) ? event.getNote() : null);
+    }
+
+    /**
+     * Moves the status forward to {@code status}, never back, as logged
+     * changes may replay in any order. Load-time only, like {@link #place}.
+     */
+    void advance(Incident.IncidentStatus status) {
+        State current = state;
+        if (status.ordinal() > current.status) {
+            state = new State(current.length, status.ordinal(), current.blocks, current.texts);
+        }
+    }
+
+    /** Drops gaps left by events whose log record was torn. */
+    void compact() {
+        State current = state;
+        State kept = new State(0, current.status, NO_BLOCKS, null);
+        for (int position = 0; position < current.length; position++) {
+            int block = block(position);
+            int at = offset(position, block) * WORDS;
+            long[] words = current.blocks[block];
+            if (words[at] != 0) {
+                String text = (words[at] & TEXT) != 0 ? current.texts[block][at / WORDS] : null;
+                kept = kept.put(kept.length, words[at], words[at + 1], text);
+            }
+        }
+        if (kept.length != current.length) {
+            state = kept;
+        }
+    }
+
+    // ================= BLOCKS =================
+
+    /** The block holding {@code position}: block {@code b} holds FIRST_BLOCK << b events. */
+    private static int block(int position) {
+        return 31 - Integer.numberOfLeadingZeros(position / FIRST_BLOCK + 1);
+    }
+
+    /** Where {@code position} sits inside its block, in events. */
+    private static int offset(int position, int block) {
+        return position - FIRST_BLOCK * ((1 << block) - 1);
+    }
+
+    /** One published version of the timeline. */
+    private static final class State {
+
+        final int length;
+        final int status;
+        final long[][] blocks;
+        /** Text notes by position, per block; null until a block holds one. */
+        final String[][] texts;
+
+        State(int length, int status, long[][] blocks, String[][] texts) {
+            this.length = length;
+            this.status = status;
+            this.blocks = blocks;
+            this.texts = texts;
+        }
+
+        /** This state with one more, empty block. */
+        State withBlock() {
+            long[][] next = Arrays.copyOf(blocks, blocks.length + 1);
+            next[blocks.length] = new long[(FIRST_BLOCK << blocks.length) * WORDS];
+            return new State(length, status, next, texts);
+        }
+
+        /**
+         * Stores {@code text} for {@code position}. Only called by the owner
+         * of an unpublished slot, so nobody else is writing the texts.
+         */
+        State withText(int position, int block, String text) {
+            String[][] next = texts;
+            if (next == null || next.length <= block) {
+                next = next == null ? new String[blocks.length][] : Arrays.copyOf(next, blocks.length);
+            }
+            if (next[block] == null) {
+                next[block] = new String[FIRST_BLOCK << block];
+            }
+            next[block][offset(position, block)] = text;
+            return new State(length, status, blocks, next);
+        }
+
+        /** Load-time write of one event, adding blocks as needed. */
+        State put(int position, long word, long time, String text) {
+            State next = this;
+            int block = block(position);
+            while (next.blocks.length <= block) {
+                next = next.withBlock();
+            }
+            long[] words = next.blocks[block];
+            int at = offset(position, block) * WORDS;
+            words[at] = text == null ? word : word | TEXT;
+            words[at + 1] = time;
+            if (text != null) {
+                next = next.withText(position, block, text);
+            }
+            return new State(Math.max(length, position + 1), status, next.blocks, next.texts);
+        }
+    }
+
+    // ================= PACKING =================
+
+    private static boolean isText(Incident.TimelineEvent event) {
+        return event.getNote() != null && !FIXED_NOTE_ACTIONS.contains(event.getAction());
+    }
+
+    /** The first word of {@code event}; a note kept as text is just flagged. */
+    private static long word(Incident.TimelineEvent event) {
+        long action = code(TimelineDictionary.ACTIONS, event.getAction());
+        long actor = code(TimelineDictionary.ACTORS, event.getActor());
+        long note = isText(event) ? TEXT : code(TimelineDictionary.NOTES, event.getNote());
+        return action << 56 | actor << 32 | note;
+    }
+
+    private static long millis(Incident.TimelineEvent event) {
+        return event.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static Incident.TimelineEvent unpack(State from, int position) {
+        int block = block(position);
+        int at = offset(position, block) * WORDS;
+        long word = from.blocks[block][at];
+        long note = word & 0xFFFFFFFFL;
+        return new Incident.TimelineEvent(
+                string(TimelineDictionary.ACTIONS, (int) (word >>> 56)),
+                string(TimelineDictionary.ACTORS, (int) (word >>> 32) & 0xFFFFFF),
+                (note & TEXT) != 0 ? from.texts[block][at / WORDS] : string(TimelineDictionary.NOTES, (int) note),
+                fromEpochMillis(from.blocks[block][at + 1])
+        );
+    }
+
+    private static long code(TimelineDictionary dictionary, String value) {
+        return value == null ? 0 : dictionary.intern(value) + 1L;
+    }
+
+    private static String string(TimelineDictionary dictionary, int code) {
+        return code == 0 ? null : dictionary.lookup(code - 1);
+    }
+
+    /** Timeline times are zone-less; UTC is only used as a fixed offset. */
+    private static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000,
+                ZoneOffset.UTC
+        );
+    }
+
+    /** Decodes events of one published state on demand. */
+    private static final class Snapshot extends AbstractList<Incident.TimelineEvent> implements RandomAccess {
+
+        private final State state;
+
+        Snapshot(State state) {
+            this.state = state;
+        }
+
+        @Override
+        public Incident.TimelineEvent get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return unpack(state, index);
+        }
+
+        @Override
+        public int size() {
+            return state.length;
+        }
+    }
+}
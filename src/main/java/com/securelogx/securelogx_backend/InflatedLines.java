@@ -0,0 +1,132 @@
+package com.securelogx.securelogx_backend;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lines of one file of a log set, handed from the thread that inflates
+ * and scans it to the thread writing the report, so each file is only
+ * decompressed once.
+ *
+ * Lines are copied into blocks with their {@code '\n'}, and at most
+ * {@link #MAX_BLOCKS} blocks wait per file: a file ahead of the report
+ * writer inflates that far and then waits, which bounds memory whatever
+ * the size of the set.
+ */
+final class InflatedLines implements LogReader.LineHandler {
+
+    private static final int BLOCK_SIZE = 256 * 1024;
+    private static final int MAX_BLOCKS = 16;
+    private static final long POLL_MILLIS = 100;
+
+    private static final Block END = new Block(new byte[0], 0, 0);
+
+    private final BlockingQueue<Block> blocks = new ArrayBlockingQueue<>(MAX_BLOCKS);
+
+    // Filled by the inflating thread only
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int length;
+    private int lines;
+
+    private volatile Throwable failure;
+    private volatile boolean abandoned;
+
+    // ================= PRODUCER =================
+
+    @Override
+    public void onLine(byte[] buf, int start, int end) {
+        int size = end - start + 1;
+        if (length + size > block.length) {
+            flush();
+            if (size > block.length) {
+                block = new byte[size];
+            }
+        }
+        System.arraycopy(buf, start, block, length, size - 1);
+        block[length + size - 1] = '\n';
+        length += size;
+        lines++;
+    }
+
+    /** Called once the whole file has been read. */
+    void finish() {
+        flush();
+        put(END);
+    }
+
+    /** Called instead of {@link #finish()} when reading the file failed. */
+    void fail(Throwable cause) {
+        failure = cause;
+    }
+
+    private void flush() {
+        if (length == 0) {
+            return;
+        }
+        put(new Block(block, length, lines));
+        block = new byte[BLOCK_SIZE];
+        length = 0;
+        lines = 0;
+    }
+
+    private void put(Block next) {
+        try {
+            while (!blocks.offer(next, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (abandoned) {
+                    throw new CancellationException("Report writer stopped");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while inflating");
+        }
+    }
+
+    // ================= CONSUMER =================
+
+    /**
+     * Writes the file's lines to {@code out} as they arrive and returns
+     * after the last one, or throws what stopped the file being read.
+     */
+    void copyTo(OutputStream out, AnalysisProgress progress) throws IOException, InterruptedException {
+        while (true) {
+            Throwable cause = failure;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause != null) {
+                throw new IOException("Failed to read log file", cause);
+            }
+
+            Block next = blocks.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (next == END) {
+                return;
+            } else if (next != null) {
+                out.write(next.bytes, 0, next.length);
+                progress.addProcessed(next.lines, next.length);
+            }
+        }
+    }
+
+    /** Releases the inflating thread when the report will not be finished. */
+    void abandon() {
+        abandoned = true;
+        blocks.clear();
+    }
+
+    private static final class Block {
+
+        final byte[] bytes;
+        final int length;
+        final int lines;
+
+        Block(byte[] bytes, int length, int lines) {
+            this.bytes = bytes;
+            this.length = length;
+            this.lines = lines;
+        }
+    }
+}
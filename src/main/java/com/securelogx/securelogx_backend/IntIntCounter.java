@@ -0,0 +1,130 @@
+package com.securelogx.securelogx_backend;
+
+/**
+ * Open-addressing int → int counter with linear probing.
+ *
+ * Counts are always positive, so a zero value marks an empty slot and
+ * every key (including 0) is usable. No boxing, no per-entry objects.
+ */
+public class IntIntCounter {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    public IntIntCounter() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public IntIntCounter(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(expectedKeys * 2 - 1, INITIAL_CAPACITY)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // ================= COUNTING =================
+
+    public void increment(int key) {
+        add(key, 1);
+    }
+
+    public void add(int key, int delta) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("Counter delta must be positive");
+        }
+
+        int slot = slot(key);
+        if (values[slot] == 0) {
+            keys[slot] = key;
+            values[slot] = delta;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        } else {
+            values[slot] += delta;
+        }
+    }
+
+    /**
+     * Stores {@code value} if {@code key} is absent. Returns the existing
+     * value, or 0 if the key was inserted.
+     */
+    public int putIfAbsent(int key, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Counter value must be positive");
+        }
+
+        int slot = slot(key);
+        if (values[slot] != 0) {
+            return values[slot];
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return 0;
+    }
+
+    public int get(int key) {
+        return values[slot(key)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public void addAll(IntIntCounter other) {
+        other.forEach(this::add);
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    private int slot(int key) {
+        int slot = mix(key) & mask;
+        while (values[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new int[oldKeys.length << 1];
+        values = new int[oldValues.length << 1];
+        mask = keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.securelogx.securelogx_backend;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single place where passwords become AES keys.
+ *
+ * Keys are derived with PBKDF2, which is deliberately slow, so results are
+ * cached by salt and a keyed fingerprint of the password. The cache is
+ * bounded (least recently used entries go first) and entries expire after
+ * a period without use. The password itself is never stored.
+ *
+ * A cached key serves every artifact written under its password, so it is
+ * never used to seal one directly: each artifact gets its own subkey from
+ * {@link #artifactKey}, which is cheap.
+ */
+public final class KeyManager {
+
+    public static final int SALT_LENGTH = 16;
+
+    private static final int KEY_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final KeyManager SHARED = new KeyManager(
+            Config.getKeyDerivationIterations(),
+            Config.getKeyCacheSize(),
+            Config.getKeyCacheTtlMinutes() * 60_000L
+    );
+
+    // Provider lookup is slow and Cipher is not thread-safe: one per thread
+    private static final ThreadLocal<Cipher> GCM_CIPHER =
+            ThreadLocal.withInitial(() -> newCipher("AES/GCM/NoPadding"));
+    private static final ThreadLocal<Mac> HKDF_MAC =
+            ThreadLocal.withInitial(() -> newMac("HmacSHA256"));
+
+    private static final byte[] ARTIFACT_KEY_INFO =
+            "securelogx artifact key".getBytes(StandardCharsets.US_ASCII);
+
+    private final int iterations;
+    private final int cacheSize;
+    private final long ttlMillis;
+
+    private final byte[] encryptionSalt = randomBytes(SALT_LENGTH);
+    private final ThreadLocal<Mac> fingerprints;
+    private final Map<String, CachedKey> cache;
+
+    public KeyManager(int iterations, int cacheSize, long ttlMillis) {
+        this.iterations = iterations;
+        this.cacheSize = cacheSize;
+        this.ttlMillis = ttlMillis;
+
+        SecretKeySpec fingerprintKey = new SecretKeySpec(randomBytes(32), "HmacSHA256");
+        this.fingerprints = ThreadLocal.withInitial(() -> {
+            Mac mac = newMac("HmacSHA256");
+            try {
+                mac.init(fingerprintKey);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+            return mac;
+        });
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedKey> eldest) {
+                return size() > KeyManager.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * The instance shared by the report pipeline and {@link Vault}.
+     */
+    public static KeyManager shared() {
+        return SHARED;
+    }
+
+    // ================= KEYS =================
+
+    /**
+     * Salt for new artifacts. It is fixed for the life of this manager so
+     * repeated encrypts hit the cache; see {@link #artifactKey} for what
+     * keeps artifacts apart.
+     */
+    public byte[] encryptionSalt() {
+        return encryptionSalt.clone();
+    }
+
+    /**
+     * Derives (or returns the cached) AES key for {@code password} and
+     * {@code salt}.
+     */
+    public SecretKey deriveKey(String password, byte[] salt) {
+        if (password == null || password.isEmpty()) {
+            throw new IllegalArgumentException("Password is required");
+        }
+
+        String cacheKey = Base64.getEncoder().encodeToString(salt) + ":"
+                + Base64.getEncoder().encodeToString(fingerprint(password));
+        long now = System.currentTimeMillis();
+
+        synchronized (cache) {
+            CachedKey cached = cache.get(cacheKey);
+            if (cached != null && cached.expiresAt > now) {
+                cached.expiresAt = now + ttlMillis;
+                return cached.key;
+            }
+            cache.remove(cacheKey);
+        }
+
+        // Derive outside the lock so a slow derivation never blocks hits
+        SecretKey key = pbkdf2(password, salt);
+        synchronized (cache) {
+            cache.put(cacheKey, new CachedKey(key, now + ttlMillis));
+        }
+        return key;
+    }
+
+    /**
+     * The key that seals one artifact: HKDF-SHA256 (RFC 5869) of
+     * {@code key}, salted with the artifact's own random
+     * {@code artifactSalt}. Artifacts under the same password thus never
+     * share an AES key, and their GCM nonces only need to be unique within
+     * one artifact.
+     */
+    public static SecretKey artifactKey(SecretKey key, byte[] artifactSalt) {
+        Mac mac = HKDF_MAC.get();
+        try {
+            // 1️⃣ Extract
+            mac.init(new SecretKeySpec(artifactSalt, "HmacSHA256"));
+            byte[] pseudoRandomKey = mac.doFinal(key.getEncoded());
+
+            // 2️⃣ Expand: one block is a whole AES-256 key
+            mac.init(new SecretKeySpec(pseudoRandomKey, "HmacSHA256"));
+            mac.update(ARTIFACT_KEY_INFO);
+            mac.update((byte) 1);
+            return new SecretKeySpec(mac.doFinal(), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Artifact key derivation failed", e);
+        }
+    }
+
+    /**
+     * Key used by report artifacts written before salted derivation.
+     */
+    public SecretKey legacyReportKey(String password) {
+        return new SecretKeySpec(Arrays.copyOf(password.getBytes(), 16), "AES");
+    }
+
+    // ================= CIPHERS =================
+
+    /**
+     * This thread's AES-GCM cipher. Callers must init it and run it to
+     * {@code doFinal} without yielding the thread, and must not keep it
+     * across calls: fetch it again for every segment.
+     */
+    public static Cipher gcmCipher() {
+        return GCM_CIPHER.get();
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    private SecretKey pbkdf2(String password, byte[] salt) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            byte[] key = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+                    .generateSecret(spec)
+                    .getEncoded();
+            return new SecretKeySpec(key, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Key derivation failed", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private byte[] fingerprint(String password) {
+        return fingerprints.get().doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cipher newCipher(String transformation) {
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(transformation + " is not available", e);
+        }
+    }
+
+    private static Mac newMac(String algorithm) {
+        try {
+            return Mac.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static class CachedKey {
+        final SecretKey key;
+        long expiresAt;
+
+        CachedKey(SecretKey key, long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
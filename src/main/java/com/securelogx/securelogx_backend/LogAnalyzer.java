@@ -1,62 +1,708 @@
 package com.securelogx.securelogx_backend;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 public class LogAnalyzer {
 
-    public List<Incident> analyze(List<String> logs) {
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final List<DetectionRule> rules;
+    private final MultiPatternMatcher matcher;
+
+    // For each threshold rule, the success-after-failure rules it feeds
+    private final int[][] dependents;
+
+    public LogAnalyzer() {
+        this(Config.getDetectionRules());
+    }
 
-        // Track failed attempts per IP
-        Map<String, Integer> failedAttempts = new HashMap<>();
+    public LogAnalyzer(List<DetectionRule> rules) {
+        this.rules = List.copyOf(rules);
+
+        List<byte[]> patterns = new ArrayList<>();
+        Map<String, Integer> indexById = new HashMap<>();
+        for (int r = 0; r < this.rules.size(); r++) {
+            patterns.add(this.rules.get(r).getPattern().getBytes(StandardCharsets.UTF_8));
+            if (indexById.put(this.rules.get(r).getId(), r) != null) {
+                throw new IllegalArgumentException("Duplicate rule ID: " + this.rules.get(r).getId());
+            }
+        }
+        this.matcher = new MultiPatternMatcher(patterns);
+
+        List<List<Integer>> feeds = new ArrayList<>();
+        for (int r = 0; r < this.rules.size(); r++) {
+            feeds.add(new ArrayList<>());
+        }
+        for (int r = 0; r < this.rules.size(); r++) {
+            for (String prerequisite : this.rules.get(r).getPrerequisites()) {
+                Integer p = indexById.get(prerequisite);
+                if (p == null || this.rules.get(p).getKind() != DetectionRule.Kind.THRESHOLD) {
+                    throw new IllegalArgumentException("Unknown prerequisite rule: " + prerequisite);
+                }
+                feeds.get(p).add(r);
+            }
+        }
+        this.dependents = new int[this.rules.size()][];
+        for (int r = 0; r < this.rules.size(); r++) {
+            this.dependents[r] = feeds.get(r).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
 
+    public List<Incident> analyze(List<String> logs) {
+        Scan scan = newScan();
         for (String line : logs) {
-            if (line.contains("Failed password")) {
-                String ip = extractIp(line);
-                failedAttempts.put(ip, failedAttempts.getOrDefault(ip, 0) + 1);
+            scan.accept(line);
+        }
+        return scan.toIncidents();
+    }
+
+    /**
+     * Streams the log at {@code path} through a single scan.
+     * Memory use is bounded by the number of distinct IPs, not the file size.
+     */
+    public List<Incident> analyze(LogReader reader, String path) {
+        Scan scan = newScan(lastModified(Path.of(path)));
+        reader.streamLines(path, scan::accept);
+        return scan.toIncidents();
+    }
+
+    // ================= MULTI-FILE MODE =================
+
+    /**
+     * Scans several logs (e.g. a rotated, gzipped set) concurrently, one
+     * file per task on {@code executor}, each inflating its own stream.
+     * Results are merged in the order given, so {@code sources} must be
+     * oldest first for windows spanning a rotation to be detected.
+     */
+    public CompletableFuture<Scan> scanSources(
+            LogReader reader,
+            List<Path> sources,
+            Executor executor
+    ) {
+        List<CompletableFuture<Scan>> perFile = new ArrayList<>();
+        for (Path source : sources) {
+            perFile.add(CompletableFuture.supplyAsync(() -> scanSource(reader, source, null), executor));
+        }
+
+        return CompletableFuture.allOf(perFile.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    Scan merged = newScan();
+                    for (CompletableFuture<Scan> scan : perFile) {
+                        merged.merge(scan.join());
+                    }
+                    return merged;
+                });
+    }
+
+    /**
+     * Scans one file of a set, also handing each line to {@code copy} when
+     * it is not null, so the inflated bytes can be used without inflating
+     * the file again.
+     */
+    public Scan scanSource(LogReader reader, Path source, LogReader.LineHandler copy) {
+        Scan scan = newScan(lastModified(source));
+        if (copy == null) {
+            reader.streamLines(source.toString(), scan::accept);
+        } else {
+            reader.streamLines(source.toString(), (buf, start, end) -> {
+                scan.accept(buf, start, end);
+                copy.onLine(buf, start, end);
+            });
+        }
+        return scan;
+    }
+
+    // ================= PARALLEL MODE =================
+
+    /**
+     * Splits the file at line boundaries and scans the chunks concurrently on
+     * the common fork-join pool. Produces exactly the same counts as
+     * {@link #analyze(LogReader, String)}.
+     */
+    public List<Incident> analyzeParallel(LogReader reader, String path) {
+        return scanParallel(reader, path, ForkJoinPool.commonPool()).join().toIncidents();
+    }
+
+    /**
+     * Submits a chunked scan of {@code path} to {@code pool} and returns
+     * without waiting, so callers can overlap other work with the analysis.
+     */
+    public ForkJoinTask<Scan> scanParallel(LogReader reader, String path, ForkJoinPool pool) {
+        try {
+            return scanParallel(reader, path, 0, Files.size(Path.of(path)), pool);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read log file", e);
+        }
+    }
+
+    /**
+     * Chunked scan of the bytes in {@code [from, to)} only.
+     */
+    public ForkJoinTask<Scan> scanParallel(
+            LogReader reader,
+            String path,
+            long from,
+            long to,
+            ForkJoinPool pool
+    ) {
+        // Oversplit so uneven chunks still keep every worker busy
+        int chunks = pool.getParallelism() * CHUNKS_PER_WORKER;
+        long[] offsets = reader.splitAtLineBoundaries(path, from, to, chunks);
+        LocalDate reference = lastModified(Path.of(path));
+        return pool.submit(new ChunkScanTask(reader, path, reference, offsets, 0, offsets.length - 1));
+    }
+
+    /**
+     * Scans chunks {@code [from, to)} by splitting the range in half until a
+     * single chunk remains, then merges the per-chunk results on the way up.
+     * Tasks are never serialised, despite what {@link ForkJoinTask} allows.
+     */
+    @SuppressWarnings("serial")
+    private class ChunkScanTask extends RecursiveTask<Scan> {
+
+        private final LogReader reader;
+        private final String path;
+        private final LocalDate reference;
+        private final long[] offsets;
+        private final int from;
+        private final int to;
+
+        ChunkScanTask(LogReader reader, String path, LocalDate reference, long[] offsets, int from, int to) {
+            this.reader = reader;
+            this.path = path;
+            this.reference = reference;
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Scan compute() {
+            if (to - from <= 1) {
+                Scan scan = newScan(reference);
+                if (from < to) {
+                    reader.streamRange(path, offsets[from], offsets[to], scan::accept);
+                }
+                return scan;
             }
+
+            int mid = (from + to) >>> 1;
+            ChunkScanTask left = new ChunkScanTask(reader, path, reference, offsets, from, mid);
+            ChunkScanTask right = new ChunkScanTask(reader, path, reference, offsets, mid, to);
+            right.fork();
+
+            Scan merged = left.compute();
+            merged.merge(right.join());
+            return merged;
+        }
+    }
+
+    // ================= STREAMING SCAN =================
+
+    public Scan newScan() {
+        return newScan(LocalDate.now());
+    }
+
+    /**
+     * A scan that places classic syslog stamps, which carry no year, in the
+     * year up to {@code reference}: a month later than the reference's is
+     * taken to be from the year before.
+     */
+    public Scan newScan(LocalDate reference) {
+        return new Scan(reference);
+    }
+
+    /**
+     * Resumes a scan from state captured by {@link Scan#snapshot()}.
+     */
+    public Scan newScan(ScanSnapshot snapshot, LocalDate reference) {
+        Scan scan = new Scan(reference);
+        scan.restore(snapshot);
+        return scan;
+    }
+
+    /**
+     * Date a log was last written, the latest any of its lines can be
+     * from; today if the file cannot be read.
+     */
+    public static LocalDate lastModified(Path log) {
+        try {
+            return LocalDate.ofInstant(Files.getLastModifiedTime(log).toInstant(), ZoneId.systemDefault());
+        } catch (IOException e) {
+            return LocalDate.now();
         }
+    }
+
+    /**
+     * Incremental analysis state. Lines are pushed in one at a time,
+     * incidents are built once the input is exhausted.
+     *
+     * Every line is scanned once by the compiled rule automaton, whatever
+     * the number of rules. The byte path allocates nothing per line: IPv4
+     * sources are parsed straight into an int key, and strings are only
+     * created when the incidents are built. Anything that is not a plain
+     * IPv4 address is tracked by its text so results match the original
+     * string matcher.
+     */
+    public class Scan {
+
+        // Per rule: sliding-window counts or success-after-failure state
+        private final FailureWindows[] windows = new FailureWindows[rules.size()];
+        private final SuccessAfterFailure[] successes = new SuccessAfterFailure[rules.size()];
 
-        List<Incident> incidents = new ArrayList<>();
+        // Source of the current match: IPv4 key, or text when it is -1
+        private String sourceText;
 
-        for (Map.Entry<String, Integer> entry : failedAttempts.entrySet()) {
+        // Year and month that yearless timestamps are placed at or before
+        private final int referenceYear;
+        private final int referenceMonth;
 
-            int attempts = entry.getValue();
-            String severity = determineSeverity(attempts);
+        private Scan(LocalDate reference) {
+            this.referenceYear = reference.getYear();
+            this.referenceMonth = reference.getMonthValue();
+            int windowSeconds = Config.getTimeWindowMinutes() * 60;
+            for (int r = 0; r < rules.size(); r++) {
+                DetectionRule rule = rules.get(r);
+                if (rule.getKind() == DetectionRule.Kind.THRESHOLD) {
+                    windows[r] = new FailureWindows(rule.getThreshold(), windowSeconds);
+                } else {
+                    successes[r] = new SuccessAfterFailure();
+                }
+            }
+        }
 
-            String incidentId = UUID.randomUUID().toString();
+        public void accept(String line) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            accept(bytes, 0, bytes.length);
+        }
+
+        public void accept(byte[] buf, int start, int end) {
+            long matched = matcher.match(buf, start, end);
+            if (matched == 0) {
+                return;
+            }
 
-            // 🔐 TEMP artifact path (realistic, SOC-style)
-            String artifactPath = "reports/incident-" + incidentId + ".enc";
+            // Lines without a recognised timestamp all count as one instant
+            int time = Math.max(parseTimestamp(buf, start, end, referenceYear, referenceMonth), 0);
 
-            incidents.add(
-                    new Incident(
-                            incidentId,
-                            entry.getKey(),
-                            attempts,
-                            severity,
-                            artifactPath
-                    )
-            );
+            while (matched != 0) {
+                int r = Long.numberOfTrailingZeros(matched);
+                matched &= matched - 1;
+
+                long ipv4 = extractSource(rules.get(r).getSourceField(), buf, start, end);
+
+                if (windows[r] != null) {
+                    if (ipv4 != -1) {
+                        windows[r].recordIpv4((int) ipv4, time);
+                    } else {
+                        windows[r].recordText(sourceText, time);
+                    }
+                    for (int d : dependents[r]) {
+                        if (ipv4 != -1) {
+                            successes[d].failureIpv4((int) ipv4);
+                        } else {
+                            successes[d].failureText(sourceText);
+                        }
+                    }
+                } else if (ipv4 != -1) {
+                    successes[r].successIpv4((int) ipv4, time);
+                } else {
+                    successes[r].successText(sourceText, time);
+                }
+            }
+        }
+
+        /**
+         * Returns the IPv4 source of the line, or -1 with {@link #sourceText}
+         * set when the source is anything else.
+         */
+        private long extractSource(DetectionRule.SourceField field, byte[] buf, int start, int end) {
+            int from;
+            int to = end;
+
+            switch (field) {
+                case PAM_RHOST:
+                    from = lastIndexOf(buf, start, end, RHOST);
+                    if (from != -1) {
+                        from += RHOST.length;
+                        to = from;
+                        while (to < end && (buf[to] & 0xFF) > ' ') to++;
+                    }
+                    break;
+                case SUDO_USER:
+                    from = indexOf(buf, start, end, SUDO);
+                    if (from != -1) {
+                        from += SUDO.length;
+                        while (from < end && buf[from] == ' ') from++;
+                        to = from;
+                        while (to < end && (buf[to] & 0xFF) > ' ') to++;
+                    }
+                    break;
+                case REMOTE_HOST:
+                default:
+                    // First token after the last "from ", so "from 203.0.113.9 port 52144 ssh2"
+                    // keys on the address alone and every port counts together
+                    from = lastIndexOf(buf, start, end, FROM);
+                    if (from != -1) {
+                        from += FROM.length;
+                        while (from < end && (buf[from] & 0xFF) <= ' ') from++;
+                        to = from;
+                        while (to < end && (buf[to] & 0xFF) > ' ') to++;
+                    }
+            }
+
+            if (from == -1) {
+                sourceText = "UNKNOWN";
+                return -1;
+            }
+
+            while (from < to && (buf[from] & 0xFF) <= ' ') from++;
+            while (to > from && (buf[to - 1] & 0xFF) <= ' ') to--;
+            if (from == to && field != DetectionRule.SourceField.REMOTE_HOST) {
+                sourceText = "UNKNOWN";
+                return -1;
+            }
+
+            long ipv4 = parseIpv4(buf, from, to);
+            if (ipv4 == -1) {
+                sourceText = new String(buf, from, to - from, StandardCharsets.UTF_8);
+            }
+            return ipv4;
+        }
+
+        /**
+         * Folds a scan of a later part of the same input into this one.
+         */
+        public void merge(Scan other) {
+            for (int r = 0; r < rules.size(); r++) {
+                if (windows[r] != null) {
+                    windows[r].merge(other.windows[r]);
+                } else {
+                    successes[r].merge(other.successes[r]);
+                }
+            }
+        }
+
+        /**
+         * Per-rule, per-source detection state, suitable for persisting.
+         */
+        public ScanSnapshot snapshot() {
+            ScanSnapshot snapshot = new ScanSnapshot();
+            for (int r = 0; r < rules.size(); r++) {
+                String id = rules.get(r).getId();
+                if (windows[r] != null) {
+                    snapshot.windows.put(id, windows[r].snapshot());
+                } else {
+                    snapshot.successes.put(id, successes[r].snapshot());
+                }
+            }
+            return snapshot;
         }
 
-        return incidents;
+        private void restore(ScanSnapshot snapshot) {
+            for (int r = 0; r < rules.size(); r++) {
+                String id = rules.get(r).getId();
+                if (windows[r] != null && snapshot.windows.containsKey(id)) {
+                    windows[r].restore(snapshot.windows.get(id));
+                } else if (successes[r] != null && snapshot.successes.containsKey(id)) {
+                    successes[r].restore(snapshot.successes.get(id));
+                }
+            }
+        }
+
+        /**
+         * Incidents that {@link #toIncidents()} would build right now.
+         */
+        public int incidentCount() {
+            int count = 0;
+            for (int r = 0; r < rules.size(); r++) {
+                count += windows[r] != null ? windows[r].flaggedCount() : successes[r].flaggedCount();
+            }
+            return count;
+        }
+
+        public List<Incident> toIncidents() {
+            List<Incident> incidents = new ArrayList<>();
+            Instant now = Instant.now();
+
+            for (int r = 0; r < rules.size(); r++) {
+                DetectionRule rule = rules.get(r);
+                FailureWindows.SourceConsumer raise = (ip, attempts, flaggedAt) ->
+                        incidents.add(buildIncident(rule, ip, attempts, dedupWindow(detectedAt(flaggedAt, now))));
+
+                if (windows[r] != null) {
+                    windows[r].forEachFlagged(raise);
+                } else {
+                    successes[r].forEachFlagged(raise);
+                }
+            }
+
+            return incidents;
+        }
     }
 
-    private String determineSeverity(int attempts) {
-        if (attempts >= 5) return "HIGH";
-        if (attempts >= 3) return "MEDIUM";
-        return "LOW";
+    /**
+     * Persistable form of a {@link Scan}, keyed by rule ID then source.
+     */
+    public static class ScanSnapshot {
+        public Map<String, Map<String, FailureWindows.SourceState>> windows = new HashMap<>();
+        public Map<String, Map<String, SuccessAfterFailure.SourceState>> successes = new HashMap<>();
     }
 
-    private String extractIp(String logLine) {
-        int start = logLine.lastIndexOf("from ");
-        return start != -1
-                ? logLine.substring(start + 5).trim()
-                : "UNKNOWN";
+    private Incident buildIncident(DetectionRule rule, String ip, int attempts, long window) {
+        String incidentId = incidentId(rule, ip, window);
+
+        // 🔐 TEMP artifact path (realistic, SOC-style)
+        String artifactPath = "reports/incident-" + incidentId + ".enc";
+
+        return new Incident(
+                incidentId,
+                ip,
+                rule.getIncidentType(),
+                attempts,
+                rule.severityFor(attempts),
+                artifactPath
+        );
     }
-}
 
+    /**
+     * Same rule, same source and same dedup window give the same ID, so a
+     * repeat analysis updates the stored incident instead of adding one.
+     */
+    static String incidentId(DetectionRule rule, String source, long window) {
+        String key = rule.getId() + "\n" + source + "\n" + window;
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * When the event that raised a detection happened, so the same log gives
+     * the same dedup window whenever it is analysed. Lines without a
+     * recognised timestamp fall back to {@code now}, so their incidents only
+     * keep one ID until the window rolls over: analysing such a log again in
+     * the next window adds new incidents instead of updating the old ones.
+     */
+    static Instant detectedAt(int scanTime, Instant now) {
+        return scanTime <= 0 ? now : Instant.ofEpochSecond(EPOCH_SECONDS + scanTime);
+    }
+
+    static long dedupWindow(Instant detectedAt) {
+        return detectedAt.getEpochSecond() / (Config.getIncidentDedupWindowHours() * 3600L);
+    }
+
+    // ================= BYTE-LEVEL MATCHING =================
+
+    private static final byte[] FROM = "from ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RHOST = "rhost=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUDO = "sudo:".getBytes(StandardCharsets.US_ASCII);
+
+    static int indexOf(byte[] buf, int start, int end, byte[] pattern) {
+        byte first = pattern[0];
+        int last = end - pattern.length;
+
+        outer:
+        for (int i = start; i <= last; i++) {
+            if (buf[i] != first) {
+                continue;
+            }
+            for (int j = 1; j < pattern.length; j++) {
+                if (buf[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    static int lastIndexOf(byte[] buf, int start, int end, byte[] pattern) {
+        outer:
+        for (int i = end - pattern.length; i >= start; i--) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buf[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address spanning exactly {@code [start, end)}.
+     * Returns the address as an unsigned int, or -1 if the range is anything
+     * else. Octets with leading zeros are rejected so that formatting the key
+     * back always reproduces the original text.
+     */
+    static long parseIpv4(byte[] buf, int start, int end) {
+        long address = 0;
+        int octets = 0;
+        int i = start;
+
+        while (octets < 4) {
+            int digitsStart = i;
+            int value = 0;
+            while (i < end && i - digitsStart < 3 && buf[i] >= '0' && buf[i] <= '9') {
+                value = value * 10 + (buf[i] - '0');
+                i++;
+            }
+
+            int digits = i - digitsStart;
+            if (digits == 0 || value > 255 || (digits > 1 && buf[digitsStart] == '0')) {
+                return -1;
+            }
+
+            address = (address << 8) | value;
+            octets++;
+
+            if (octets < 4) {
+                if (i >= end || buf[i] != '.') {
+                    return -1;
+                }
+                i++;
+            }
+        }
+
+        return i == end ? address : -1;
+    }
+
+    // ================= TIMESTAMPS =================
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    /** Scan times count seconds from the start of this year. */
+    private static final int EPOCH_YEAR = 2000;
+
+    /** Start of {@link #EPOCH_YEAR} in Unix seconds; timestamps are read as UTC. */
+    private static final long EPOCH_SECONDS = daysSinceEpoch(EPOCH_YEAR, 1, 1) * SECONDS_PER_DAY;
+
+    /**
+     * Parses the timestamp at the start of a line into seconds since
+     * 2000-01-01, or -1 if none is recognised. Accepts
+     * {@code 2025 Jan 12 14:32:10}, classic syslog {@code Jan 12 14:32:10}
+     * and ISO-8601 {@code 2025-01-12T14:32:10}. Classic stamps get
+     * {@code referenceYear}, or the year before when their month is later
+     * than {@code referenceMonth}, so a log running from December into
+     * January stays in order. Allocation-free.
+     */
+    static int parseTimestamp(byte[] buf, int start, int end, int referenceYear, int referenceMonth) {
+        int year = -1;
+        int month;
+        int day;
+        int i = start;
+
+        if (end - i >= 19 && isDigits(buf, i, 4) && buf[i + 4] == '-') {
+            year = digits(buf, i, 4);
+            if (!isDigits(buf, i + 5, 2) || buf[i + 7] != '-' || !isDigits(buf, i + 8, 2)
+                    || (buf[i + 10] != 'T' && buf[i + 10] != ' ')) {
+                return -1;
+            }
+            month = digits(buf, i + 5, 2);
+            day = digits(buf, i + 8, 2);
+            i += 11;
+        } else {
+            if (end - i >= 5 && isDigits(buf, i, 4) && buf[i + 4] == ' ') {
+                year = digits(buf, i, 4);
+                i += 5;
+            }
+            if (end - i < 15) {
+                return -1;
+            }
+            month = monthOf(buf, i);
+            if (month == 0 || buf[i + 3] != ' ') {
+                return -1;
+            }
+            // Day is space-padded in classic syslog ("Jan  2")
+            int tens = buf[i + 4] == ' ' ? 0 : buf[i + 4] - '0';
+            int ones = buf[i + 5] - '0';
+            if (tens < 0 || tens > 9 || ones < 0 || ones > 9 || buf[i + 6] != ' ') {
+                return -1;
+            }
+            day = tens * 10 + ones;
+            i += 7;
+        }
+
+        if (end - i < 8 || !isDigits(buf, i, 2) || buf[i + 2] != ':'
+                || !isDigits(buf, i + 3, 2) || buf[i + 5] != ':' || !isDigits(buf, i + 6, 2)) {
+            return -1;
+        }
+        if (year == -1) {
+            year = month > referenceMonth ? referenceYear - 1 : referenceYear;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > 31 || year < EPOCH_YEAR) {
+            return -1;
+        }
+
+        long days = daysSinceEpoch(year, month, day) - daysSinceEpoch(EPOCH_YEAR, 1, 1);
+        long seconds = days * SECONDS_PER_DAY
+                + digits(buf, i, 2) * 3600L
+                + digits(buf, i + 3, 2) * 60L
+                + digits(buf, i + 6, 2);
+        return seconds > Integer.MAX_VALUE ? -1 : (int) seconds;
+    }
+
+    private static boolean isDigits(byte[] buf, int at, int count) {
+        for (int i = at; i < at + count; i++) {
+            if (buf[i] < '0' || buf[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(byte[] buf, int at, int count) {
+        int value = 0;
+        for (int i = at; i < at + count; i++) {
+            value = value * 10 + (buf[i] - '0');
+        }
+        return value;
+    }
+
+    private static final byte[] MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static int monthOf(byte[] buf, int at) {
+        for (int m = 0; m < 12; m++) {
+            if (buf[at] == MONTHS[m * 3]
+                    && buf[at + 1] == MONTHS[m * 3 + 1]
+                    && buf[at + 2] == MONTHS[m * 3 + 2]) {
+                return m + 1;
+            }
+        }
+        return 0;
+    }
+
+    /** Days since 1970-01-01 in the proleptic Gregorian calendar. */
+    private static long daysSinceEpoch(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    // ================= IPV4 =================
+
+    static String formatIpv4(int address) {
+        return ((address >>> 24) & 0xFF) + "."
+                + ((address >>> 16) & 0xFF) + "."
+                + ((address >>> 8) & 0xFF) + "."
+                + (address & 0xFF);
+    }
+}
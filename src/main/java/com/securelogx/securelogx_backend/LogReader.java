@@ -1,16 +1,348 @@
 package com.securelogx.securelogx_backend;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
+/**
+ * Streams log files line by line with a constant memory footprint.
+ *
+ * Lines are pushed to a {@link LineHandler} as byte ranges over a reused
+ * chunk buffer, so callers never hold more than one chunk of the file.
+ */
 public class LogReader {
 
-    public List<String> readLogs(String path) {
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Receives one line (without its terminator) as a range of {@code buf}.
+     * The buffer is reused after the call returns.
+     */
+    @FunctionalInterface
+    public interface LineHandler {
+        void onLine(byte[] buf, int start, int end);
+    }
+
+    // ================= STREAMING API =================
+
+    /**
+     * Streams a plain or gzip-compressed log. Compressed files are inflated
+     * on the fly, never to disk.
+     */
+    public void streamLines(String path, LineHandler handler) {
+        try (InputStream in = open(Path.of(path))) {
+            streamLines(in, handler);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read log file", e);
+        }
+    }
+
+    public void streamLines(InputStream in, LineHandler handler) throws IOException {
+        byte[] buf = new byte[CHUNK_SIZE];
+        int filled = 0;
+
+        while (true) {
+            int read = in.read(buf, filled, buf.length - filled);
+            if (read == -1) {
+                break;
+            }
+            filled += read;
+
+            int lineStart = 0;
+            for (int i = 0; i < filled; i++) {
+                if (buf[i] == '\n') {
+                    emit(handler, buf, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+
+            // Carry the partial trailing line over to the next chunk
+            int remaining = filled - lineStart;
+            if (lineStart == 0 && remaining == buf.length) {
+                // A single line longer than the buffer: grow to fit it
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            } else if (remaining > 0) {
+                System.arraycopy(buf, lineStart, buf, 0, remaining);
+            }
+            filled = remaining;
+        }
+
+        if (filled > 0) {
+            emit(handler, buf, 0, filled);
+        }
+    }
+
+    /**
+     * Streams only the lines in {@code [start, end)}. Both offsets must sit
+     * on line boundaries, see {@link #splitAtLineBoundaries(String, int)}.
+     */
+    public void streamRange(String path, long start, long end, LineHandler handler) {
+        try (FileChannel channel = FileChannel.open(Path.of(path))) {
+            streamLines(new RangeInputStream(channel, start, end), handler);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read log file", e);
+        }
+    }
+
+    public void forEachLine(String path, Consumer<String> consumer) {
+        streamLines(path, (buf, start, end) ->
+                consumer.accept(new String(buf, start, end - start, StandardCharsets.UTF_8))
+        );
+    }
+
+    // ================= SOURCES =================
+
+    /**
+     * Opens a log for reading, transparently inflating gzip content.
+     * Detection is by magic bytes, so uploads without a .gz name work too.
+     */
+    public InputStream open(Path path) throws IOException {
+        return open(Files.newInputStream(path));
+    }
+
+    /**
+     * Wraps a raw stream (e.g. an HTTP request body), transparently
+     * inflating it if it starts with the gzip magic bytes.
+     */
+    public InputStream open(InputStream raw) throws IOException {
+        InputStream in = new BufferedInputStream(raw, CHUNK_SIZE);
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+
+        if (b1 == GZIP_MAGIC_1 && b2 == GZIP_MAGIC_2) {
+            return new GZIPInputStream(in, CHUNK_SIZE);
+        }
+        return in;
+    }
+
+    public boolean isCompressed(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == GZIP_MAGIC_1 && in.read() == GZIP_MAGIC_2;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read log file", e);
+        }
+    }
+
+    public static boolean isGlob(String path) {
+        return path.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+    }
+
+    /**
+     * Expands {@code auth.log*}-style patterns (in the file name only) into
+     * the matching files, oldest rotation first: {@code auth.log.3.gz},
+     * {@code auth.log.2.gz}, {@code auth.log.1}, {@code auth.log}.
+     * A plain path resolves to itself.
+     */
+    public List<Path> resolveSources(String pathOrGlob) {
+        if (!isGlob(pathOrGlob)) {
+            return List.of(Path.of(pathOrGlob));
+        }
+
+        Path pattern = Path.of(pathOrGlob);
+        Path dir = pattern.getParent() != null ? pattern.getParent() : Path.of(".");
+        if (isGlob(dir.toString())) {
+            throw new IllegalArgumentException("Wildcards are only supported in the file name");
+        }
+
+        PathMatcher matcher = dir.getFileSystem()
+                .getPathMatcher("glob:" + pattern.getFileName());
+
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .filter(p -> matcher.matches(p.getFileName()) && Files.isRegularFile(p))
+                    .sorted(ROTATION_ORDER)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list log files", e);
+        }
+    }
+
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    /** Higher rotation numbers are older, the live file has none. */
+    private static final Comparator<Path> ROTATION_ORDER = Comparator
+            .comparingInt((Path p) -> -rotationNumber(p))
+            .thenComparing(p -> p.getFileName().toString());
+
+    private static int rotationNumber(Path path) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot == -1) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // ================= CHUNKING =================
+
+    /**
+     * Splits the file into at most {@code chunks} byte ranges that each start
+     * at the beginning of a line. Returns the boundary offsets, starting at 0
+     * and ending at the file size, so range {@code i} is
+     * {@code [offsets[i], offsets[i + 1])}.
+     */
+    public long[] splitAtLineBoundaries(String path, int chunks) {
         try {
-            return Files.readAllLines(Path.of(path));
-        } catch (Exception e) {
+            return splitAtLineBoundaries(path, 0, Files.size(Path.of(path)), chunks);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read log file", e);
+        }
+    }
+
+    /**
+     * Same as {@link #splitAtLineBoundaries(String, int)} restricted to
+     * {@code [from, to)}, where {@code from} is itself a line boundary.
+     */
+    public long[] splitAtLineBoundaries(String path, long from, long to, int chunks) {
+        try (FileChannel channel = FileChannel.open(Path.of(path))) {
+            long length = to - from;
+            long[] offsets = new long[chunks + 1];
+            offsets[0] = from;
+            int count = 1;
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+
+            for (int i = 1; i < chunks; i++) {
+                long nominal = Math.max(from + length * i / chunks, offsets[count - 1]);
+                long boundary = nextLineStart(channel, nominal, to, probe);
+                if (boundary > offsets[count - 1] && boundary < to) {
+                    offsets[count++] = boundary;
+                }
+            }
+
+            offsets[count++] = to;
+            return Arrays.copyOf(offsets, count);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read log file", e);
+        }
+    }
+
+    /**
+     * Returns the offset just past the last '\n' in {@code [from, to)}, or
+     * {@code from} if that range holds no complete line. Bytes after it
+     * belong to a line that is still being written.
+     */
+    public long completeLinesEnd(String path, long from, long to) {
+        try (FileChannel channel = FileChannel.open(Path.of(path))) {
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            long pos = to;
+
+            while (pos > from) {
+                int length = (int) Math.min(probe.capacity(), pos - from);
+                probe.clear().limit(length);
+                while (probe.hasRemaining()
+                        && channel.read(probe, pos - length + probe.position()) > 0) {
+                    // positional reads may return short
+                }
+                for (int i = probe.position() - 1; i >= 0; i--) {
+                    if (probe.get(i) == '\n') {
+                        return pos - length + i + 1;
+                    }
+                }
+                pos -= length;
+            }
+            return from;
+        } catch (IOException e) {
             throw new RuntimeException("Failed to read log file", e);
         }
     }
+
+    private long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe)
+            throws IOException {
+        // A boundary is any offset directly after a '\n'
+        long pos = Math.max(from - 1, 0);
+        while (pos < size) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    // ================= LIST API =================
+
+    public List<String> readLogs(String path) {
+        List<String> lines = new ArrayList<>();
+        forEachLine(path, lines::add);
+        return lines;
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    private void emit(LineHandler handler, byte[] buf, int start, int end) {
+        // Tolerate CRLF logs copied from Windows hosts
+        if (end > start && buf[end - 1] == '\r') {
+            end--;
+        }
+        handler.onLine(buf, start, end);
+    }
+
+    /**
+     * Positional reads over {@code [start, end)} of a shared channel,
+     * so several ranges of one file can be read concurrently.
+     */
+    private static class RangeInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long remaining = end - position;
+            if (remaining <= 0) {
+                return -1;
+            }
+            int wanted = (int) Math.min(len, remaining);
+            int read = channel.read(ByteBuffer.wrap(b, off, wanted), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int read = read(one, 0, 1);
+            return read == -1 ? -1 : one[0] & 0xFF;
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package com.securelogx.securelogx_backend;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SHA-256 Merkle tree over evidence records, shaped as in RFC 6962.
+ *
+ * Leaves are {@code H(0x00 || record)} and nodes {@code H(0x01 || left || right)},
+ * so a leaf can never pass for a node. A tree of {@code n} leaves splits at
+ * the largest power of two below {@code n}, which lets {@link Builder}
+ * compute the root from a stream of leaves while keeping only one hash per
+ * level.
+ */
+public final class MerkleTree {
+
+    static final int HASH_LENGTH = 32;
+    static final byte LEAF_PREFIX = 0x00;
+    static final byte NODE_PREFIX = 0x01;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private MerkleTree() {}
+
+    // ================= HASHING =================
+
+    /**
+     * This thread's SHA-256 digest, reset. Callers feeding a leaf in pieces
+     * must start with {@link #LEAF_PREFIX}.
+     */
+    static MessageDigest sha256() {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return digest;
+    }
+
+    public static byte[] leafHash(byte[] record) {
+        MessageDigest digest = sha256();
+        digest.update(LEAF_PREFIX);
+        return digest.digest(record);
+    }
+
+    static byte[] nodeHash(byte[] left, byte[] right) {
+        MessageDigest digest = sha256();
+        digest.update(NODE_PREFIX);
+        digest.update(left);
+        return digest.digest(right);
+    }
+
+    // ================= STREAMING ROOT =================
+
+    /**
+     * Root of leaves added in order. Holds one complete subtree per set bit
+     * of the leaf count, largest first.
+     */
+    public static class Builder {
+
+        private byte[][] subtrees = new byte[8][];
+        private long[] sizes = new long[8];
+        private int depth;
+        private long count;
+
+        public void add(byte[] leafHash) {
+            byte[] hash = leafHash;
+            long size = 1;
+            while (depth > 0 && sizes[depth - 1] == size) {
+                hash = nodeHash(subtrees[--depth], hash);
+                size *= 2;
+            }
+            if (depth == subtrees.length) {
+                subtrees = Arrays.copyOf(subtrees, depth * 2);
+                sizes = Arrays.copyOf(sizes, depth * 2);
+            }
+            subtrees[depth] = hash;
+            sizes[depth++] = size;
+            count++;
+        }
+
+        public long size() {
+            return count;
+        }
+
+        /** Root so far; the hash of no input for an empty tree. */
+        public byte[] root() {
+            if (depth == 0) {
+                return sha256().digest();
+            }
+            byte[] hash = subtrees[depth - 1];
+            for (int i = depth - 2; i >= 0; i--) {
+                hash = nodeHash(subtrees[i], hash);
+            }
+            return hash;
+        }
+    }
+
+    // ================= PROOFS =================
+
+    /**
+     * Leaf ranges {@code [from, to)} whose roots form the audit path of leaf
+     * {@code index}, nearest sibling first.
+     */
+    static List<long[]> auditPathRanges(long index, long count) {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("Leaf " + index + " is outside a tree of " + count);
+        }
+        List<long[]> ranges = new ArrayList<>();
+        long from = 0;
+        long to = count;
+        while (to - from > 1) {
+            long split = Long.highestOneBit(to - from - 1);
+            if (index < from + split) {
+                ranges.add(new long[]{from + split, to});
+                to = from + split;
+            } else {
+                ranges.add(new long[]{from, from + split});
+                from += split;
+            }
+        }
+        Collections.reverse(ranges);
+        return ranges;
+    }
+
+    /**
+     * True if {@code path} leads from {@code leafHash} at {@code index} to
+     * {@code root} in a tree of {@code count} leaves (RFC 9162, 2.1.3.2).
+     */
+    public static boolean verify(byte[] leafHash, long index, long count, List<byte[]> path, byte[] root) {
+        if (index < 0 || index >= count) {
+            return false;
+        }
+        long fn = index;
+        long sn = count - 1;
+        byte[] hash = leafHash;
+        for (byte[] sibling : path) {
+            if (sn == 0) {
+                return false;
+            }
+            if ((fn & 1) == 1 || fn == sn) {
+                hash = nodeHash(sibling, hash);
+                while ((fn & 1) == 0 && fn != 0) {
+                    fn >>= 1;
+                    sn >>= 1;
+                }
+            } else {
+                hash = nodeHash(hash, sibling);
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 && MessageDigest.isEqual(hash, root);
+    }
+}
@@ -0,0 +1,106 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over raw bytes.
+ *
+ * All patterns are compiled into one deterministic automaton, so a line
+ * is scanned exactly once no matter how many patterns are configured.
+ * Matches are reported as a bitmask of pattern indexes (up to 64).
+ */
+public class MultiPatternMatcher {
+
+    public static final int MAX_PATTERNS = Long.SIZE;
+
+    private static final int ALPHABET = 256;
+
+    // Flattened DFA: transitions[state * 256 + byte] = next state
+    private final int[] transitions;
+    // Patterns that end in each state, failure-link outputs included
+    private final long[] outputs;
+
+    public MultiPatternMatcher(List<byte[]> patterns) {
+        if (patterns.isEmpty() || patterns.size() > MAX_PATTERNS) {
+            throw new IllegalArgumentException(
+                    "Between 1 and " + MAX_PATTERNS + " patterns are supported"
+            );
+        }
+
+        int maxStates = 1;
+        for (byte[] pattern : patterns) {
+            if (pattern.length == 0) {
+                throw new IllegalArgumentException("Patterns cannot be empty");
+            }
+            maxStates += pattern.length;
+        }
+
+        int[] trie = new int[maxStates * ALPHABET];
+        Arrays.fill(trie, -1);
+        long[] out = new long[maxStates];
+        int states = 1;
+
+        // 1️⃣ Build the trie
+        for (int p = 0; p < patterns.size(); p++) {
+            int state = 0;
+            for (byte b : patterns.get(p)) {
+                int slot = state * ALPHABET + (b & 0xFF);
+                if (trie[slot] == -1) {
+                    trie[slot] = states++;
+                }
+                state = trie[slot];
+            }
+            out[state] |= 1L << p;
+        }
+
+        // 2️⃣ Breadth-first: resolve failure links into full DFA transitions
+        int[] fail = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = trie[c];
+            if (next == -1) {
+                trie[c] = 0;
+            } else {
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            out[state] |= out[fail[state]];
+
+            for (int c = 0; c < ALPHABET; c++) {
+                int slot = state * ALPHABET + c;
+                int next = trie[slot];
+                if (next == -1) {
+                    trie[slot] = trie[fail[state] * ALPHABET + c];
+                } else {
+                    fail[next] = trie[fail[state] * ALPHABET + c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = Arrays.copyOf(trie, states * ALPHABET);
+        this.outputs = Arrays.copyOf(out, states);
+    }
+
+    /**
+     * Returns a bitmask with bit {@code p} set if pattern {@code p}
+     * occurs anywhere in {@code [start, end)}. Allocation-free.
+     */
+    public long match(byte[] buf, int start, int end) {
+        int state = 0;
+        long matched = 0;
+        for (int i = start; i < end; i++) {
+            state = transitions[state * ALPHABET + (buf[i] & 0xFF)];
+            matched |= outputs[state];
+        }
+        return matched;
+    }
+}
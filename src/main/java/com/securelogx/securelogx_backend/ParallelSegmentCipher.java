@@ -0,0 +1,226 @@
+package com.securelogx.securelogx_backend;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static com.securelogx.securelogx_backend.SegmentedCipherOutputStream.*;
+
+/**
+ * Encrypts and decrypts whole files in the segmented artifact format on a
+ * worker pool.
+ *
+ * Work proceeds in windows of {@code window} segments, so at most that
+ * many segments are held in memory. Workers read their plaintext (or
+ * ciphertext) with positional {@link FileChannel} reads. Decrypted
+ * segments go straight to their fixed plaintext offset; sealed segments
+ * vary in size once compressed, so each window is written out in order
+ * after its workers finish.
+ */
+public final class ParallelSegmentCipher {
+
+    private ParallelSegmentCipher() {}
+
+    // ================= ENCRYPT =================
+
+    /**
+     * Writes {@code input} to {@code output} as a segmented artifact. The
+     * result has the same layout as one written by
+     * {@link SegmentedCipherOutputStream}.
+     */
+    public static void encrypt(
+            Path input,
+            Path output,
+            SecretKey key,
+            byte[] salt,
+            SegmentCodec codec,
+            Executor workers,
+            int window
+    ) throws IOException {
+
+        int segmentSize = DEFAULT_SEGMENT_SIZE;
+        byte[] header = newHeader(salt, codec, segmentSize);
+        SecretKey artifactKey = sealingKey(key, header);
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            long size = in.size();
+            int segments = (int) Math.max(1, (size + segmentSize - 1) / segmentSize);
+
+            long[] positions = new long[segments];
+            long[] linesBefore = new long[segments];
+            long[] newlines = new long[segments];
+            byte[][] sealed = new byte[window][];
+            int[] sealedLengths = new int[window];
+
+            writeFully(out, ByteBuffer.wrap(header), 0);
+            long position = HEADER_LENGTH;
+            long lines = 0;
+
+            for (int from = 0; from < segments; from += window) {
+                int first = from;
+                int to = Math.min(segments, from + window);
+
+                // 1️⃣ Compress + seal the window in parallel
+                runAll(first, to, workers, s -> {
+                    long plainStart = (long) s * segmentSize;
+                    int length = (int) Math.min(segmentSize, size - plainStart);
+                    boolean last = s == segments - 1;
+
+                    byte[] plain = new byte[length];
+                    readFully(in, ByteBuffer.wrap(plain), plainStart);
+
+                    long count = 0;
+                    for (byte b : plain) {
+                        if (b == '\n') {
+                            count++;
+                        }
+                    }
+                    newlines[s] = count;
+
+                    byte[] frame = new byte[4 + length + TAG_LENGTH];
+                    int value = sealSegment(artifactKey, header, codec, s, last,
+                            plain, length, new byte[length], frame, 4);
+                    ByteBuffer.wrap(frame).putInt(0, value);
+                    sealed[s - first] = frame;
+                    sealedLengths[s - first] = 4 + (value & LENGTH_MASK);
+                });
+
+                // 2️⃣ Write it out in order
+                for (int s = first; s < to; s++) {
+                    positions[s] = position;
+                    linesBefore[s] = lines;
+                    lines += newlines[s];
+                    writeFully(out, ByteBuffer.wrap(sealed[s - first], 0, sealedLengths[s - first]), position);
+                    position += sealedLengths[s - first];
+                    sealed[s - first] = null;
+                }
+            }
+
+            byte[] trailer = trailer(artifactKey, header, position, segments, size, lines,
+                    positions, linesBefore);
+            writeFully(out, ByteBuffer.wrap(trailer), position);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(output);
+            throw e;
+        }
+    }
+
+    // ================= DECRYPT =================
+
+    /**
+     * Writes the plaintext of a segmented artifact to {@code output}.
+     */
+    public static void decrypt(
+            Path input,
+            Path output,
+            Function<byte[], SecretKey> keyForSalt,
+            Executor workers,
+            int window
+    ) throws IOException {
+
+        try (SegmentedArtifactReader reader = new SegmentedArtifactReader(input, keyForSalt);
+             FileChannel out = FileChannel.open(output,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            int segmentSize = reader.getSegmentSize();
+            int segments = reader.getSegmentCount();
+            for (int from = 0; from < segments; from += window) {
+                runAll(from, Math.min(segments, from + window), workers, s -> {
+                    byte[] sealed = new byte[segmentSize + TAG_LENGTH];
+                    byte[] packed = new byte[segmentSize + TAG_LENGTH];
+                    byte[] plain = new byte[segmentSize + TAG_LENGTH];
+                    int length = reader.decryptSegment(s, sealed, packed, plain);
+                    writeFully(out, ByteBuffer.wrap(plain, 0, length), (long) s * segmentSize);
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(output);
+            throw e;
+        }
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    @FunctionalInterface
+    private interface SegmentTask {
+        void run(int segment) throws IOException;
+    }
+
+    /**
+     * Runs {@code task} for segments {@code [from, to)} on the workers,
+     * waits for all of them and rethrows the first failure.
+     */
+    private static void runAll(int from, int to, Executor workers, SegmentTask task)
+            throws IOException {
+
+        CountDownLatch done = new CountDownLatch(to - from);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        for (int s = from; s < to; s++) {
+            int segment = s;
+            try {
+                workers.execute(() -> {
+                    try {
+                        if (failure.get() == null) {
+                            task.run(segment);
+                        }
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                done.countDown();
+            }
+        }
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing segments");
+        }
+
+        Exception e = failure.get();
+        if (e instanceof IOException io) {
+            throw io;
+        }
+        if (e != null) {
+            throw new IOException("Segment processing failed", e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("File changed while it was being encrypted");
+            }
+            position += n;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -1,26 +1,79 @@
 package com.securelogx.securelogx_backend;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.nio.charset.StandardCharsets;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
 
 /**
  * Generates versioned, integrity-protected incident evidence.
  *
  * Evidence is NEVER overwritten.
  * Each regeneration produces a new sealed artifact.
+ *
+ * Incident records are stored once, in content-addressed chunks under
+ * {@code objects/}. Each version is a manifest listing its chunks by hash.
+ * Chunks are never modified, so earlier versions stay reconstructable.
+ *
+ * A chunk ends after an incident whose ID hashes to a multiple of
+ * {@link Config#getEvidenceChunkSize()}, so boundaries move with the
+ * incidents rather than with list positions: adding, removing or changing
+ * one incident only rewrites the chunk around it. The chunks of the last
+ * version are remembered, and one whose incidents are all unchanged is
+ * reused with its hash and leaf hashes, without serializing it again.
+ *
+ * The metadata trailer carries a SHA-256 hash of the compact
+ * {@code incidents} array that {@link #reconstruct(String, OutputStream)}
+ * writes. Reused chunks feed it from their stored bytes.
+ *
+ * Each incident record is also a leaf of a {@link MerkleTree} whose root
+ * is sealed in the metadata, so one incident can be checked with its
+ * proof path instead of rehashing the whole report (see
+ * {@link EvidenceVerifier}).
  */
 public class ReportGenerator {
 
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private static final ObjectWriter INCIDENT_WRITER = MAPPER.writerFor(Incident.class);
+    private static final ObjectWriter METADATA_WRITER = MAPPER.writerFor(EvidenceMetadata.class);
+
+    private static final String CHUNK_DIR = "objects";
+    private static final Pattern CHUNK_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    // A run of incidents with no boundary is cut at this many times the average
+    private static final int MAX_CHUNK_FACTOR = 4;
+
     private final String reportsDir;
 
+    // Chunks of the last version written, by the ID of their first incident
+    private Map<String, Chunk> previousChunks = new HashMap<>();
+
     public ReportGenerator(String reportsDir) {
         this.reportsDir = reportsDir;
     }
@@ -66,7 +119,7 @@ public class ReportGenerator {
 
     // ================= CORE GENERATION LOGIC =================
 
-    private String generateVersionedEvidence(
+    private synchronized String generateVersionedEvidence(
             List<Incident> incidents,
             String createdBy,
             int version,
@@ -86,41 +139,211 @@ public class ReportGenerator {
 
         File reportFile = new File(dir, fileName);
 
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-        // 1️⃣ Serialize incident payload FIRST (authoritative content)
-        String incidentJson = mapper.writeValueAsString(incidents);
-
-        // 2️⃣ Compute integrity hash
-        String evidenceHash = computeSha256(incidentJson);
-
-        // 3️⃣ Wrap evidence
-        EvidencePayload payload = new EvidencePayload(
-                new EvidenceMetadata(
-                        createdBy,
-                        LocalDateTime.now(),
-                        version,
-                        reason,
-                        evidenceHash
-                ),
-                incidents
-        );
+        MessageDigest payload = MessageDigest.getInstance("SHA-256");
+        MerkleTree.Builder merkle = new MerkleTree.Builder();
+        int chunkSize = Config.getEvidenceChunkSize();
+        int chunksWritten = 0;
+        Map<String, Chunk> chunks = new HashMap<>();
+
+        try (OutputStream file = new BufferedOutputStream(new FileOutputStream(reportFile));
+             JsonGenerator manifest = MAPPER.getFactory().createGenerator(file)) {
+
+            manifest.useDefaultPrettyPrinter();
+            manifest.writeStartObject();
+            manifest.writeArrayFieldStart("chunks");
+
+            payload.update((byte) '[');
+            List<Incident> members = new ArrayList<>();
+            for (int i = 0; i < incidents.size(); i++) {
+                members.add(incidents.get(i));
+                if (i < incidents.size() - 1
+                        && !endsChunk(incidents.get(i), chunkSize)
+                        && members.size() < chunkSize * MAX_CHUNK_FACTOR) {
+                    continue;
+                }
 
-        mapper.writerWithDefaultPrettyPrinter()
-                .writeValue(reportFile, payload);
+                // 1️⃣ Reuse the chunk of the last version, or serialize a new one
+                Chunk chunk = reusableChunk(members);
+                byte[] bytes;
+                if (chunk != null) {
+                    bytes = Files.readAllBytes(chunkPath(Path.of(reportsDir), chunk.hash));
+                } else {
+                    ChunkBytes serialized = serialize(members);
+                    bytes = serialized.bytes;
+                    chunk = serialized.chunk;
+                    if (storeChunk(chunk.hash, bytes)) {
+                        chunksWritten++;
+                    }
+                }
+                chunks.put(chunk.incidents.get(0).getIncidentId(), chunk);
+
+                // 2️⃣ Feed the sealed hashes: the compact array and every leaf
+                if (merkle.size() > 0) {
+                    payload.update((byte) ',');
+                }
+                payload.update(bytes, 1, bytes.length - 2);
+                for (byte[] leaf : chunk.leaves) {
+                    merkle.add(leaf);
+                }
+
+                manifest.writeStartObject();
+                manifest.writeStringField("hash", chunk.hash);
+                manifest.writeNumberField("incidents", chunk.incidents.size());
+                manifest.writeEndObject();
+                members = new ArrayList<>();
+            }
+            payload.update((byte) ']');
+            manifest.writeEndArray();
+
+            // 3️⃣ Seal with metadata trailer
+            EvidenceMetadata metadata = new EvidenceMetadata(
+                    createdBy,
+                    LocalDateTime.now(),
+                    version,
+                    reason,
+                    toHex(payload.digest()),
+                    toHex(merkle.root()),
+                    merkle.size(),
+                    chunksWritten
+            );
+            manifest.writeFieldName("metadata");
+            METADATA_WRITER.writeValue(manifest, metadata);
+            manifest.writeEndObject();
+        }
 
+        previousChunks = chunks;
         return reportFile.getPath();
     }
 
-    // ================= HASH LOGIC =================
+    // ================= CHUNKING =================
+
+    /** True if a chunk ends after {@code incident}, on average one in {@code chunkSize}. */
+    private static boolean endsChunk(Incident incident, int chunkSize) {
+        int hash = incident.getIncidentId().hashCode() * 0x9E3779B9;
+        return Integer.remainderUnsigned(hash ^ (hash >>> 16), chunkSize) == 0;
+    }
+
+    /**
+     * The last version's chunk of exactly these incidents, if none of them
+     * has changed since and it is still stored.
+     */
+    private Chunk reusableChunk(List<Incident> members) {
+        Chunk previous = previousChunks.get(members.get(0).getIncidentId());
+        if (previous == null || previous.incidents.size() != members.size()) {
+            return null;
+        }
+        for (int i = 0; i < members.size(); i++) {
+            Incident incident = members.get(i);
+            if (previous.incidents.get(i) != incident || !previous.stamps.get(i).equals(Stamp.of(incident))) {
+                return null;
+            }
+        }
+        return Files.exists(chunkPath(Path.of(reportsDir), previous.hash)) ? previous : null;
+    }
+
+    private static ChunkBytes serialize(List<Incident> members) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<Stamp> stamps = new ArrayList<>();
+        byte[][] leaves = new byte[members.size()][];
+
+        bytes.write('[');
+        for (int i = 0; i < members.size(); i++) {
+            // Stamp first: a change racing the write then shows up next version
+            stamps.add(Stamp.of(members.get(i)));
+            byte[] record = INCIDENT_WRITER.writeValueAsBytes(members.get(i));
+            if (i > 0) {
+                bytes.write(',');
+            }
+            bytes.write(record);
+            leaves[i] = MerkleTree.leafHash(record);
+        }
+        bytes.write(']');
+
+        byte[] content = bytes.toByteArray();
+        String hash = toHex(MerkleTree.sha256().digest(content));
+        return new ChunkBytes(new Chunk(hash, List.copyOf(members), stamps, leaves), content);
+    }
+
+    // ================= RECONSTRUCTION =================
+
+    /**
+     * Writes the self-contained report a manifest stands for: the stored
+     * incident records, in order, followed by the manifest's metadata. The
+     * result can be audited with {@link EvidenceVerifier}.
+     */
+    public void reconstruct(String manifestPath, OutputStream out) throws IOException {
+        JsonNode manifest = MAPPER.readTree(new File(manifestPath));
+        JsonNode chunks = manifest.get("chunks");
+        if (chunks == null || !chunks.isArray() || !manifest.has("metadata")) {
+            throw new IllegalArgumentException("Not an evidence manifest: " + manifestPath);
+        }
+
+        try (JsonGenerator envelope = MAPPER.getFactory().createGenerator(out)) {
+            envelope.useDefaultPrettyPrinter();
+            envelope.writeStartObject();
+            envelope.writeFieldName("incidents");
+            envelope.writeRawValue("");
+            envelope.flush();
+
+            // Chunks are compact arrays: splice their contents into one
+            out.write('[');
+            boolean first = true;
+            for (JsonNode entry : chunks) {
+                String hash = entry.path("hash").asText();
+                byte[] records = Files.readAllBytes(chunkPath(Path.of(reportsDir), hash));
+                if (!toHex(MerkleTree.sha256().digest(records)).equals(hash)) {
+                    throw new IOException("Evidence chunk is corrupt: " + hash);
+                }
+                if (records.length > 2) {
+                    if (!first) {
+                        out.write(',');
+                    }
+                    out.write(records, 1, records.length - 2);
+                    first = false;
+                }
+            }
+            out.write(']');
+
+            envelope.writeFieldName("metadata");
+            envelope.writeTree(manifest.get("metadata"));
+            envelope.writeEndObject();
+        }
+    }
+
+    // ================= CHUNK STORE =================
+
+    /**
+     * Where the chunk with content hash {@code hash} lives under
+     * {@code reportsDir}.
+     */
+    static Path chunkPath(Path reportsDir, String hash) {
+        if (!CHUNK_HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid evidence chunk hash: " + hash);
+        }
+        return reportsDir.resolve(CHUNK_DIR).resolve(hash.substring(0, 2)).resolve(hash + ".json");
+    }
+
+    /** Writes a chunk atomically; false if it is already stored. */
+    private boolean storeChunk(String hash, byte[] bytes) throws IOException {
+        Path target = chunkPath(Path.of(reportsDir), hash);
+        if (Files.exists(target)) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
 
-    private String computeSha256(String input) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+    // ================= HASH LOGIC =================
 
-        StringBuilder hex = new StringBuilder();
+    private static String toHex(byte[] hash) {
+        StringBuilder hex = new StringBuilder(hash.length * 2);
         for (byte b : hash) {
             hex.append(String.format("%02x", b));
         }
@@ -129,13 +352,72 @@ public class ReportGenerator {
 
     // ================= EVIDENCE STRUCTURE =================
 
-    private static class EvidencePayload {
-        public final EvidenceMetadata metadata;
-        public final List<Incident> incidents;
+    /** A stored chunk and what its records were made from. */
+    private static final class Chunk {
+        final String hash;
+        final List<Incident> incidents;
+        final List<Stamp> stamps;
+        final byte[][] leaves;
 
-        public EvidencePayload(EvidenceMetadata metadata, List<Incident> incidents) {
-            this.metadata = metadata;
+        Chunk(String hash, List<Incident> incidents, List<Stamp> stamps, byte[][] leaves) {
+            this.hash = hash;
             this.incidents = incidents;
+            this.stamps = stamps;
+            this.leaves = leaves;
+        }
+    }
+
+    private static final class ChunkBytes {
+        final Chunk chunk;
+        final byte[] bytes;
+
+        ChunkBytes(Chunk chunk, byte[] bytes) {
+            this.chunk = chunk;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * What can change in a serialized incident. Everything else is final,
+     * and the timeline only grows.
+     */
+    private static final class Stamp {
+        final int events;
+        final Incident.IncidentStatus status;
+        final int attempts;
+        final String severity;
+
+        Stamp(int events, Incident.IncidentStatus status, int attempts, String severity) {
+            this.events = events;
+            this.status = status;
+            this.attempts = attempts;
+            this.severity = severity;
+        }
+
+        static Stamp of(Incident incident) {
+            return new Stamp(
+                    incident.getTimeline().size(),
+                    incident.getStatus(),
+                    incident.getFailedAttempts(),
+                    incident.getSeverity()
+            );
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Stamp)) {
+                return false;
+            }
+            Stamp stamp = (Stamp) other;
+            return events == stamp.events
+                    && status == stamp.status
+                    && attempts == stamp.attempts
+                    && Objects.equals(severity, stamp.severity);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(events, status, attempts, severity);
         }
     }
 
@@ -145,19 +427,28 @@ public class ReportGenerator {
         public final int version;
         public final String reason;
         public final String evidenceHash;
+        public final String merkleRoot;
+        public final long incidentCount;
+        public final int chunksWritten;
 
         public EvidenceMetadata(
                 String createdBy,
                 LocalDateTime createdAt,
                 int version,
                 String reason,
-                String evidenceHash
+                String evidenceHash,
+                String merkleRoot,
+                long incidentCount,
+                int chunksWritten
         ) {
             this.createdBy = createdBy;
             this.createdAt = createdAt;
             this.version = version;
             this.reason = reason;
             this.evidenceHash = evidenceHash;
+            this.merkleRoot = merkleRoot;
+            this.incidentCount = incidentCount;
+            this.chunksWritten = chunksWritten;
         }
     }
 }
@@ -0,0 +1,45 @@
+package com.securelogx.securelogx_backend;
+
+/**
+ * A decrypted slice of a report artifact.
+ *
+ * Totals are -1 for artifacts written before the segment index existed.
+ */
+public class ReportPage {
+
+    private final String content;
+    private final long offset;
+    private final long startLine;
+    private final long totalBytes;
+    private final long totalLines;
+
+    public ReportPage(String content, long offset, long startLine, long totalBytes, long totalLines) {
+        this.content = content;
+        this.offset = offset;
+        this.startLine = startLine;
+        this.totalBytes = totalBytes;
+        this.totalLines = totalLines;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    /** Byte offset of the page, or -1 for a line page. */
+    public long getOffset() {
+        return offset;
+    }
+
+    /** First line of the page, or -1 for a byte page. */
+    public long getStartLine() {
+        return startLine;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getTotalLines() {
+        return totalLines;
+    }
+}
@@ -0,0 +1,96 @@
+package com.securelogx.securelogx_backend;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression applied to each segment before it is encrypted.
+ *
+ * Segments are compressed independently so they stay individually
+ * decryptable. A segment that does not shrink is stored as-is.
+ */
+public enum SegmentCodec {
+
+    NONE(0, 0),
+    /** Deflate at level 1: most of the ratio on syslog text for little CPU. */
+    DEFLATE_FAST(1, Deflater.BEST_SPEED),
+    DEFLATE(2, Deflater.DEFAULT_COMPRESSION);
+
+    // Deflater/Inflater hold native memory; keep one of each per thread
+    private static final ThreadLocal<Deflater[]> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater[values().length]);
+    private static final ThreadLocal<Inflater> INFLATER =
+            ThreadLocal.withInitial(Inflater::new);
+
+    private final int id;
+    private final int level;
+
+    SegmentCodec(int id, int level) {
+        this.id = id;
+        this.level = level;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public static SegmentCodec fromId(int id) throws IOException {
+        for (SegmentCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+        throw new IOException("Unknown artifact codec: " + id);
+    }
+
+    /**
+     * Compresses {@code input[0, length)} into {@code output}. Returns the
+     * compressed length, or -1 if it would not be smaller than the input.
+     */
+    public int compress(byte[] input, int length, byte[] output) {
+        if (this == NONE || length == 0) {
+            return -1;
+        }
+        Deflater[] deflaters = DEFLATERS.get();
+        Deflater deflater = deflaters[ordinal()];
+        if (deflater == null) {
+            deflater = new Deflater(level);
+            deflaters[ordinal()] = deflater;
+        }
+
+        deflater.reset();
+        deflater.setInput(input, 0, length);
+        deflater.finish();
+        int limit = Math.min(length - 1, output.length);
+        int written = 0;
+        while (!deflater.finished() && written < limit) {
+            written += deflater.deflate(output, written, limit - written);
+        }
+        return deflater.finished() ? written : -1;
+    }
+
+    /**
+     * Inflates {@code input[0, length)} into {@code output}; returns the
+     * number of bytes produced.
+     */
+    public static int decompress(byte[] input, int length, byte[] output) throws IOException {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(input, 0, length);
+        try {
+            int written = 0;
+            while (!inflater.finished()) {
+                int n = inflater.inflate(output, written, output.length - written);
+                if (n == 0 && (inflater.needsInput() || written == output.length)) {
+                    throw new IOException("Compressed segment is corrupt");
+                }
+                written += n;
+            }
+            return written;
+        } catch (DataFormatException e) {
+            throw new IOException("Compressed segment is corrupt", e);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.securelogx.securelogx_backend;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static com.securelogx.securelogx_backend.SegmentedCipherOutputStream.*;
+
+/**
+ * Random access to an artifact written by {@link SegmentedCipherOutputStream}.
+ *
+ * Opening reads the header and the encrypted segment index; each read then
+ * decrypts only the segments its range touches, so the cost of a page does
+ * not depend on the size of the artifact.
+ */
+public class SegmentedArtifactReader implements Closeable {
+
+    private final FileChannel channel;
+    private final byte[] header;
+    private final SecretKey key;
+    private final int segmentSize;
+
+    private final int segmentCount;
+    private final long plainBytes;
+    private final long lineCount;
+    private final long[] segmentPositions;
+    private final long[] linesBefore;
+
+    private final byte[] sealed;
+    private final byte[] packed;
+    private final byte[] plain;
+
+    /**
+     * @param keyForSalt derives the key from the salt stored in the header
+     */
+    public SegmentedArtifactReader(Path artifact, Function<byte[], SecretKey> keyForSalt)
+            throws IOException {
+        this.channel = FileChannel.open(artifact, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            byte[] start = new byte[MAGIC.length + 1];
+            if (size < start.length) {
+                throw new IOException("Artifact is truncated");
+            }
+            readFully(ByteBuffer.wrap(start), 0);
+            if (!isSeekable(start)) {
+                throw new IOException("Artifact has no segment index");
+            }
+            this.header = Arrays.copyOf(start, headerLength(start[MAGIC.length]));
+            if (size < header.length + FOOTER_LENGTH) {
+                throw new IOException("Artifact is truncated");
+            }
+            readFully(ByteBuffer.wrap(header), 0);
+
+            SegmentedCipherInputStream.codec(header);
+            this.segmentSize = SegmentedCipherInputStream.segmentSize(header);
+            this.key = sealingKey(keyForSalt.apply(SegmentedCipherInputStream.salt(header)), header);
+
+            // 1️⃣ Footer points at the index frame
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_LENGTH);
+            readFully(footer, size - FOOTER_LENGTH);
+            if (!Arrays.equals(footer.array(), 8, FOOTER_LENGTH, INDEX_MAGIC, 0, INDEX_MAGIC.length)) {
+                throw new IOException("Artifact is truncated");
+            }
+            long indexPosition = footer.getLong(0);
+            long indexLength = size - FOOTER_LENGTH - indexPosition - 4;
+            if (indexPosition < header.length || indexLength < TAG_LENGTH
+                    || indexLength > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt segment index");
+            }
+
+            // 2️⃣ Decrypt and parse the index
+            ByteBuffer frame = ByteBuffer.allocate(4 + (int) indexLength);
+            readFully(frame, indexPosition);
+            if (frame.getInt(0) != indexLength) {
+                throw new IOException("Corrupt segment index");
+            }
+            ByteBuffer index;
+            try {
+                Cipher cipher = KeyManager.gcmCipher();
+                cipher.init(Cipher.DECRYPT_MODE, key, nonce(header, INDEX_SEGMENT, LAST_SEGMENT));
+                cipher.updateAAD(header);
+                index = ByteBuffer.wrap(cipher.doFinal(frame.array(), 4, (int) indexLength));
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Segment index failed authentication", e);
+            }
+
+            this.segmentCount = index.getInt();
+            this.plainBytes = index.getLong();
+            this.lineCount = index.getLong();
+            if (segmentCount < 1 || index.remaining() != segmentCount * 16L) {
+                throw new IOException("Corrupt segment index");
+            }
+            this.segmentPositions = new long[segmentCount];
+            this.linesBefore = new long[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                segmentPositions[i] = index.getLong();
+                linesBefore[i] = index.getLong();
+            }
+
+            this.sealed = new byte[segmentSize + TAG_LENGTH];
+            this.packed = new byte[segmentSize + TAG_LENGTH];
+            this.plain = new byte[segmentSize + TAG_LENGTH];
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * True if {@code prefix} is the header of an artifact with an index.
+     */
+    public static boolean isSeekable(byte[] prefix) {
+        return SegmentedCipherInputStream.isSegmented(prefix)
+                && prefix.length > MAGIC.length
+                && prefix[MAGIC.length] >= INDEXED_VERSION
+                && prefix[MAGIC.length] <= VERSION;
+    }
+
+    // ================= RANGE READS =================
+
+    /**
+     * Up to {@code limit} plaintext bytes starting at {@code offset}.
+     */
+    public byte[] readBytes(long offset, int limit) throws IOException {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        long end = Math.min(plainBytes, offset + limit);
+        if (offset >= end) {
+            return new byte[0];
+        }
+
+        byte[] result = new byte[(int) (end - offset)];
+        int written = 0;
+        for (int s = (int) (offset / segmentSize); written < result.length; s++) {
+            int length = decryptSegment(s);
+            long segmentStart = (long) s * segmentSize;
+            int from = (int) Math.max(0, offset - segmentStart);
+            int n = Math.min(length - from, result.length - written);
+            System.arraycopy(plain, from, result, written, n);
+            written += n;
+        }
+        return result;
+    }
+
+    /**
+     * Lines {@code [startLine, startLine + count)} (0-based) with their line
+     * breaks, cut short at {@code maxBytes}.
+     */
+    public byte[] readLines(long startLine, int count, int maxBytes) throws IOException {
+        if (startLine < 0 || count < 0) {
+            throw new IllegalArgumentException("Line range must not be negative");
+        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        if (count == 0 || startLine > lineCount) {
+            return result.toByteArray();
+        }
+
+        // Line n starts right after the n-th line break: find its segment
+        int s = segmentContainingBreak(startLine);
+        long toSkip = startLine - linesBefore[s];
+        long remaining = count;
+
+        for (; s < segmentCount && remaining > 0 && result.size() < maxBytes; s++) {
+            int length = decryptSegment(s);
+            int i = 0;
+            while (toSkip > 0 && i < length) {
+                if (plain[i++] == '\n') {
+                    toSkip--;
+                }
+            }
+            int from = i;
+            while (remaining > 0 && i < length) {
+                if (plain[i++] == '\n') {
+                    remaining--;
+                }
+            }
+            result.write(plain, from, Math.min(i - from, maxBytes - result.size()));
+        }
+        return result.toByteArray();
+    }
+
+    // ================= METADATA =================
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public long getPlainBytes() {
+        return plainBytes;
+    }
+
+    /**
+     * Number of line breaks; a trailing line without one is not counted.
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    /** Last segment with fewer than {@code line} breaks before it. */
+    private int segmentContainingBreak(long line) {
+        int low = 0;
+        int high = segmentCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (linesBefore[mid] < line) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private int decryptSegment(int s) throws IOException {
+        return decryptSegment(s, sealed, packed, plain);
+    }
+
+    /**
+     * Decrypts (and inflates) segment {@code s} into {@code plain} using the
+     * caller's buffers, each at least {@link #getSegmentSize()} plus 16
+     * bytes long. Safe to call from several threads at once.
+     */
+    public int decryptSegment(int s, byte[] sealed, byte[] packed, byte[] plain)
+            throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(4);
+        readFully(frame, segmentPositions[s]);
+        int value = frame.getInt(0);
+        boolean last = (value & LAST_SEGMENT) != 0;
+        int length = value & LENGTH_MASK;
+        if (last != (s == segmentCount - 1) || length < TAG_LENGTH || length > sealed.length) {
+            throw new IOException("Corrupt segment " + s);
+        }
+        readFully(ByteBuffer.wrap(sealed, 0, length), segmentPositions[s] + 4);
+
+        return SegmentedCipherInputStream.openSegment(
+                key, header, segmentSize, s, value, sealed, packed, plain
+        );
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("Artifact is truncated");
+            }
+            position += n;
+        }
+    }
+}
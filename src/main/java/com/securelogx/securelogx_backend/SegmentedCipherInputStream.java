@@ -0,0 +1,234 @@
+package com.securelogx.securelogx_backend;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static com.securelogx.securelogx_backend.SegmentedCipherOutputStream.*;
+
+/**
+ * Decrypts a stream written by {@link SegmentedCipherOutputStream} one
+ * segment at a time. Plaintext is only released after its segment's tag
+ * has been verified, and a stream that ends before its last segment is
+ * rejected as truncated.
+ */
+public class SegmentedCipherInputStream extends InputStream {
+
+    private final DataInputStream in;
+    private final SecretKey key;
+    private final byte[] header;
+    private final int segmentSize;
+    private final byte[] sealed;
+    private final byte[] packed;
+    private final byte[] plain;
+    private final boolean indexed;
+
+    private int position;
+    private int available;
+    private int segmentIndex;
+    private boolean lastSeen;
+
+    /**
+     * @param keyForSalt derives the key from the salt stored in the header
+     *                   (null for version 1 artifacts)
+     */
+    public SegmentedCipherInputStream(InputStream in, Function<byte[], SecretKey> keyForSalt)
+            throws IOException {
+        this.in = new DataInputStream(in);
+
+        byte[] start = new byte[MAGIC.length + 1];
+        this.in.readFully(start);
+        if (!isSegmented(start)) {
+            throw new IOException("Not a segmented artifact");
+        }
+        int length = headerLength(start[MAGIC.length]);
+        if (length == -1) {
+            throw new IOException("Unsupported artifact version: " + start[MAGIC.length]);
+        }
+        this.header = Arrays.copyOf(start, length);
+        this.in.readFully(header, start.length, length - start.length);
+
+        codec(header);
+        this.segmentSize = segmentSize(header);
+        this.key = sealingKey(keyForSalt.apply(salt(header)), header);
+        this.indexed = version(header) >= INDEXED_VERSION;
+        this.sealed = new byte[segmentSize + TAG_LENGTH];
+        this.packed = new byte[segmentSize + TAG_LENGTH];
+        this.plain = new byte[segmentSize + TAG_LENGTH];
+    }
+
+    /**
+     * True if {@code prefix} starts with the segmented artifact magic.
+     */
+    public static boolean isSegmented(byte[] prefix) {
+        return prefix.length >= MAGIC.length
+                && Arrays.equals(prefix, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    // ================= READING =================
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return plain[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, available - position);
+        System.arraycopy(plain, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return available - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    /** Decrypts segments until one yields plaintext; false at the end. */
+    private boolean fill() throws IOException {
+        while (position == available) {
+            if (lastSeen) {
+                return false;
+            }
+            openSegment();
+        }
+        return true;
+    }
+
+    private void openSegment() throws IOException {
+        int frame;
+        try {
+            frame = in.readInt();
+        } catch (EOFException e) {
+            throw new IOException("Artifact is truncated");
+        }
+        boolean last = (frame & LAST_SEGMENT) != 0;
+        int length = frame & LENGTH_MASK;
+        if (length < TAG_LENGTH || length > sealed.length) {
+            throw new IOException("Corrupt segment length: " + length);
+        }
+        in.readFully(sealed, 0, length);
+
+        available = openSegment(key, header, segmentSize, segmentIndex, frame, sealed, packed, plain);
+        position = 0;
+        segmentIndex++;
+        lastSeen = last;
+
+        if (last && indexed) {
+            checkTrailer();
+        } else if (last && in.read() != -1) {
+            throw new IOException("Unexpected data after the last segment");
+        }
+    }
+
+    // ================= FORMAT (shared with SegmentedArtifactReader) =================
+
+    static int version(byte[] header) {
+        return header[MAGIC.length];
+    }
+
+    /** Codec named in the header; versions before 4 have none. */
+    static SegmentCodec codec(byte[] header) throws IOException {
+        return version(header) >= CODEC_VERSION ? SegmentCodec.fromId(header[CODEC_OFFSET]) : SegmentCodec.NONE;
+    }
+
+    static int segmentSize(byte[] header) throws IOException {
+        int offset = version(header) >= CODEC_VERSION ? SEGMENT_SIZE_OFFSET : SEGMENT_SIZE_OFFSET - 1;
+        int segmentSize = ByteBuffer.wrap(header, offset, 4).getInt();
+        if (segmentSize < 1 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IOException("Invalid segment size: " + segmentSize);
+        }
+        return segmentSize;
+    }
+
+    /** Salt for the key, or null for version 1, which predates salts. */
+    static byte[] salt(byte[] header) {
+        if (version(header) < SALTED_VERSION) {
+            return null;
+        }
+        int offset = version(header) >= CODEC_VERSION ? SALT_OFFSET : SALT_OFFSET - 1;
+        return Arrays.copyOfRange(header, offset, offset + KeyManager.SALT_LENGTH);
+    }
+
+    /**
+     * Decrypts the sealed segment {@code index} (length from {@code frame})
+     * and inflates it if it was compressed. {@code packed} and {@code plain}
+     * must hold a segment plus tag. Returns the plaintext length, which is
+     * the full segment size for every segment but the last. Thread-safe.
+     */
+    static int openSegment(
+            SecretKey key,
+            byte[] header,
+            int segmentSize,
+            int index,
+            int frame,
+            byte[] sealed,
+            byte[] packed,
+            byte[] plain
+    ) throws IOException {
+        boolean compressed = (frame & COMPRESSED_SEGMENT) != 0;
+        int length = frame & LENGTH_MASK;
+
+        long started = System.nanoTime();
+        int opened;
+        try {
+            Cipher cipher = KeyManager.gcmCipher();
+            cipher.init(Cipher.DECRYPT_MODE, key, nonce(header, index, frame));
+            cipher.updateAAD(header);
+            opened = cipher.doFinal(sealed, 0, length, compressed ? packed : plain, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Segment " + index + " failed authentication", e);
+        }
+        long decryptedAt = System.nanoTime();
+
+        int plainLength = compressed
+                ? SegmentCodec.decompress(packed, opened, plain)
+                : opened;
+        ArtifactMetrics.recordRead(decryptedAt - started, System.nanoTime() - decryptedAt);
+
+        boolean last = (frame & LAST_SEGMENT) != 0;
+        if (plainLength > segmentSize || (!last && plainLength != segmentSize)) {
+            throw new IOException("Segment " + index + " has the wrong size");
+        }
+        return plainLength;
+    }
+
+    /** Sequential reads do not need the index, but its frame must be intact. */
+    private void checkTrailer() throws IOException {
+        int indexLength = in.readInt();
+        if (indexLength < TAG_LENGTH) {
+            throw new IOException("Corrupt segment index");
+        }
+        in.skipNBytes(indexLength);
+        byte[] footer = new byte[FOOTER_LENGTH];
+        in.readFully(footer);
+        if (!Arrays.equals(footer, 8, FOOTER_LENGTH, INDEX_MAGIC, 0, INDEX_MAGIC.length)
+                || in.read() != -1) {
+            throw new IOException("Unexpected data after the last segment");
+        }
+    }
+}
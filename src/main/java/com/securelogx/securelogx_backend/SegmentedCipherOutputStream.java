@@ -0,0 +1,362 @@
+package com.securelogx.securelogx_backend;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Encrypts a stream as a sequence of independently authenticated
+ * AES-GCM segments, so neither side ever buffers more than one segment.
+ *
+ * Layout:
+ * <pre>
+ *   header:  magic "SLXE" | version (1) | codec (1) | segment size (4) | salt (16)
+ *            | artifact salt (16) | nonce prefix (7)
+ *   segment: flags + length (4) | ciphertext + tag          (repeated)
+ *   index:   length (4) | ciphertext + tag
+ *   footer:  index position (8) | magic "SLXI"
+ * </pre>
+ * The salt tells the reader which key to derive (see {@link KeyManager}).
+ * That key is shared by every artifact written under the same password, so
+ * the segments are sealed with a subkey of it for this artifact alone,
+ * derived from the random artifact salt ({@link KeyManager#artifactKey}).
+ * Each segment's nonce is the prefix, its index and its flags (last
+ * segment, compressed), and the header is authenticated with every
+ * segment. Reordered, dropped, truncated or re-flagged segments therefore
+ * fail to decrypt.
+ *
+ * With a {@link SegmentCodec} other than {@code NONE}, each segment is
+ * compressed before it is encrypted, unless that would not make it smaller.
+ *
+ * Every segment but the last holds exactly {@code segment size} plaintext
+ * bytes. The encrypted index records where each segment starts and how
+ * many lines precede it, so {@link SegmentedArtifactReader} can decrypt
+ * just the segments a byte or line range touches.
+ *
+ * Only the current version is written, but every earlier one still reads:
+ * version 1 has no salt (the key is {@link KeyManager#legacyReportKey}),
+ * versions 1 and 2 have no index or footer, versions before 4 have no
+ * codec byte and no compressed segments, and versions before 5 have no
+ * artifact salt and are sealed with the password key itself.
+ */
+public class SegmentedCipherOutputStream extends OutputStream {
+
+    static final byte[] MAGIC = {'S', 'L', 'X', 'E'};
+    static final byte[] INDEX_MAGIC = {'S', 'L', 'X', 'I'};
+    static final int VERSION = 5;
+    static final int SALTED_VERSION = 2;
+    static final int INDEXED_VERSION = 3;
+    static final int CODEC_VERSION = 4;
+    static final int ARTIFACT_KEY_VERSION = 5;
+    static final int ARTIFACT_SALT_LENGTH = 16;
+    static final int NONCE_PREFIX_LENGTH = 7;
+    static final int CODEC_OFFSET = MAGIC.length + 1;
+    static final int SEGMENT_SIZE_OFFSET = CODEC_OFFSET + 1;
+    static final int SALT_OFFSET = SEGMENT_SIZE_OFFSET + 4;
+    static final int ARTIFACT_SALT_OFFSET = SALT_OFFSET + KeyManager.SALT_LENGTH;
+    static final int HEADER_LENGTH = ARTIFACT_SALT_OFFSET + ARTIFACT_SALT_LENGTH + NONCE_PREFIX_LENGTH;
+    static final int FOOTER_LENGTH = 8 + INDEX_MAGIC.length;
+    static final int TAG_BITS = 128;
+    static final int TAG_LENGTH = TAG_BITS / 8;
+    static final int LAST_SEGMENT = 0x80000000;
+    static final int COMPRESSED_SEGMENT = 0x40000000;
+    static final int LENGTH_MASK = 0x3FFFFFFF;
+    static final int INDEX_SEGMENT = -1;
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+    static final int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final DataOutputStream out;
+    private final SecretKey key;
+    private final SegmentCodec codec;
+    private final byte[] header;
+    private final byte[] plain;
+    private final byte[] packed;
+    private final byte[] sealed;
+
+    private int filled;
+    private int segmentIndex;
+    private boolean closed;
+
+    // Index: per segment, where it starts and how many lines come before it
+    private long position = HEADER_LENGTH;
+    private long plainBytes;
+    private long lines;
+    private long[] segmentPositions = new long[64];
+    private long[] linesBefore = new long[64];
+
+    /**
+     * @param key  key derived from {@code salt}; segments are sealed with
+     *             this artifact's own subkey of it
+     * @param salt recorded in the header for the reader
+     */
+    public SegmentedCipherOutputStream(OutputStream out, SecretKey key, byte[] salt)
+            throws IOException {
+        this(out, key, salt, Config.getArtifactCodec(), DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SegmentedCipherOutputStream(
+            OutputStream out,
+            SecretKey key,
+            byte[] salt,
+            SegmentCodec codec,
+            int segmentSize
+    ) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.codec = codec;
+        this.plain = new byte[segmentSize];
+        this.packed = new byte[segmentSize];
+        this.sealed = new byte[segmentSize + TAG_LENGTH];
+
+        this.header = newHeader(salt, codec, segmentSize);
+        this.key = sealingKey(key, header);
+        this.out.write(header);
+    }
+
+    // ================= WRITING =================
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (filled == plain.length) {
+            seal(false);
+        }
+        plain[filled++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            // Seal only once more data arrives, so the last segment is known
+            if (filled == plain.length) {
+                seal(false);
+            }
+            int n = Math.min(len, plain.length - filled);
+            System.arraycopy(b, off, plain, filled, n);
+            filled += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            seal(true);
+            writeIndex();
+        } finally {
+            out.close();
+        }
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    private void seal(boolean last) throws IOException {
+        if (segmentIndex == segmentPositions.length) {
+            segmentPositions = Arrays.copyOf(segmentPositions, segmentIndex * 2);
+            linesBefore = Arrays.copyOf(linesBefore, segmentIndex * 2);
+        }
+        segmentPositions[segmentIndex] = position;
+        linesBefore[segmentIndex] = lines;
+
+        for (int i = 0; i < filled; i++) {
+            if (plain[i] == '\n') {
+                lines++;
+            }
+        }
+        plainBytes += filled;
+
+        int frame = sealSegment(key, header, codec, segmentIndex, last,
+                plain, filled, packed, sealed, 0);
+        int length = frame & LENGTH_MASK;
+        out.writeInt(frame);
+        out.write(sealed, 0, length);
+        position += 4 + length;
+
+        segmentIndex++;
+        filled = 0;
+    }
+
+    private void writeIndex() throws IOException {
+        out.write(trailer(key, header, position, segmentIndex, plainBytes, lines,
+                segmentPositions, linesBefore));
+    }
+
+    // ================= FORMAT (shared with ParallelSegmentCipher) =================
+
+    /** Header length of format {@code version}, or -1 if it is not one. */
+    static int headerLength(int version) {
+        switch (version) {
+            case 1:
+                return SALT_OFFSET - 1 + NONCE_PREFIX_LENGTH;
+            case 2:
+            case 3:
+                return ARTIFACT_SALT_OFFSET - 1 + NONCE_PREFIX_LENGTH;
+            case CODEC_VERSION:
+                return ARTIFACT_SALT_OFFSET + NONCE_PREFIX_LENGTH;
+            case VERSION:
+                return HEADER_LENGTH;
+            default:
+                return -1;
+        }
+    }
+
+    static byte[] newHeader(byte[] salt, SegmentCodec codec, int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        if (salt.length != KeyManager.SALT_LENGTH) {
+            throw new IllegalArgumentException("Salt must be " + KeyManager.SALT_LENGTH + " bytes");
+        }
+        byte[] artifactSalt = new byte[ARTIFACT_SALT_LENGTH];
+        RANDOM.nextBytes(artifactSalt);
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        RANDOM.nextBytes(noncePrefix);
+        return ByteBuffer.allocate(HEADER_LENGTH)
+                .put(MAGIC)
+                .put((byte) VERSION)
+                .put((byte) codec.getId())
+                .putInt(segmentSize)
+                .put(salt)
+                .put(artifactSalt)
+                .put(noncePrefix)
+                .array();
+    }
+
+    /**
+     * Key that seals the segments under {@code header}: from version 5 on,
+     * the artifact's own subkey of {@code key}, before that {@code key}.
+     */
+    static SecretKey sealingKey(SecretKey key, byte[] header) {
+        if (header[MAGIC.length] < ARTIFACT_KEY_VERSION) {
+            return key;
+        }
+        return KeyManager.artifactKey(key,
+                Arrays.copyOfRange(header, ARTIFACT_SALT_OFFSET, ARTIFACT_SALT_OFFSET + ARTIFACT_SALT_LENGTH));
+    }
+
+    /**
+     * Compresses and encrypts {@code length} bytes of {@code input} as
+     * segment {@code index} into {@code sealed} at {@code sealedOffset}.
+     * {@code packed} is scratch space of at least {@code length} bytes.
+     * Returns the segment frame: flags plus sealed length. Thread-safe.
+     */
+    static int sealSegment(
+            SecretKey key,
+            byte[] header,
+            SegmentCodec codec,
+            int index,
+            boolean last,
+            byte[] input,
+            int length,
+            byte[] packed,
+            byte[] sealed,
+            int sealedOffset
+    ) throws IOException {
+        long started = System.nanoTime();
+        int packedLength = codec.compress(input, length, packed);
+        boolean compressed = packedLength >= 0;
+        long compressedAt = System.nanoTime();
+
+        int flags = (last ? LAST_SEGMENT : 0) | (compressed ? COMPRESSED_SEGMENT : 0);
+        int sealedLength;
+        try {
+            Cipher cipher = KeyManager.gcmCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, key, nonce(header, index, flags));
+            cipher.updateAAD(header);
+            sealedLength = compressed
+                    ? cipher.doFinal(packed, 0, packedLength, sealed, sealedOffset)
+                    : cipher.doFinal(input, 0, length, sealed, sealedOffset);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Segment encryption failed", e);
+        }
+
+        ArtifactMetrics.recordWrite(
+                length,
+                compressed ? packedLength : length,
+                compressed,
+                compressedAt - started,
+                System.nanoTime() - compressedAt
+        );
+        return flags | sealedLength;
+    }
+
+    /**
+     * Sealed index frame plus footer, to be written at {@code indexPosition}.
+     *
+     * Index layout: segment count (4) | plaintext bytes (8) | lines (8),
+     * then per segment: position (8) | lines before it (8).
+     */
+    static byte[] trailer(
+            SecretKey key,
+            byte[] header,
+            long indexPosition,
+            int segmentCount,
+            long plainBytes,
+            long lines,
+            long[] segmentPositions,
+            long[] linesBefore
+    ) throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(4 + 8 + 8 + segmentCount * 16)
+                .putInt(segmentCount)
+                .putLong(plainBytes)
+                .putLong(lines);
+        for (int i = 0; i < segmentCount; i++) {
+            index.putLong(segmentPositions[i]).putLong(linesBefore[i]);
+        }
+
+        byte[] sealedIndex;
+        try {
+            Cipher cipher = KeyManager.gcmCipher();
+            cipher.init(Cipher.ENCRYPT_MODE, key, nonce(header, INDEX_SEGMENT, LAST_SEGMENT));
+            cipher.updateAAD(header);
+            sealedIndex = cipher.doFinal(index.array());
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Index encryption failed", e);
+        }
+
+        return ByteBuffer.allocate(4 + sealedIndex.length + FOOTER_LENGTH)
+                .putInt(sealedIndex.length)
+                .put(sealedIndex)
+                .putLong(indexPosition)
+                .put(INDEX_MAGIC)
+                .array();
+    }
+
+    /** Nonce for a segment: prefix | index | flags (1 = last, 2 = compressed). */
+    static GCMParameterSpec nonce(byte[] header, int segmentIndex, int frameFlags) {
+        int flags = ((frameFlags & LAST_SEGMENT) != 0 ? 1 : 0)
+                | ((frameFlags & COMPRESSED_SEGMENT) != 0 ? 2 : 0);
+        byte[] nonce = ByteBuffer.allocate(NONCE_PREFIX_LENGTH + 5)
+                .put(header, header.length - NONCE_PREFIX_LENGTH, NONCE_PREFIX_LENGTH)
+                .putInt(segmentIndex)
+                .put((byte) flags)
+                .array();
+        return new GCMParameterSpec(TAG_BITS, nonce);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.securelogx.securelogx_backend;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense ids to log sources so per-source state can live in flat
+ * primitive arrays. IPv4 sources are keyed by their int value and never
+ * turned into strings until {@link #name(int)} is called.
+ */
+public class SourceIndex {
+
+    private static final int INITIAL_SOURCES = 64;
+
+    // id + 1, since the counter reserves 0 for empty slots
+    private final IntIntCounter ipv4Ids = new IntIntCounter();
+    private final Map<String, Integer> textIds = new HashMap<>();
+
+    private int[] ipv4Keys = new int[INITIAL_SOURCES];
+    private String[] textKeys = new String[INITIAL_SOURCES];
+    private int size;
+
+    public int idForIpv4(int ip) {
+        int id = ipv4Ids.putIfAbsent(ip, size + 1) - 1;
+        return id >= 0 ? id : add(ip, null);
+    }
+
+    public int idForText(String source) {
+        Integer id = textIds.get(source);
+        if (id == null) {
+            id = add(0, source);
+            textIds.put(source, id);
+        }
+        return id;
+    }
+
+    /**
+     * Resolves a source name as produced by {@link #name(int)}.
+     */
+    public int idForName(String source) {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        long ipv4 = LogAnalyzer.parseIpv4(bytes, 0, bytes.length);
+        return ipv4 != -1 ? idForIpv4((int) ipv4) : idForText(source);
+    }
+
+    /**
+     * Resolves the source with id {@code id} in {@code other} to an id here.
+     */
+    public int idFor(SourceIndex other, int id) {
+        return other.textKeys[id] == null
+                ? idForIpv4(other.ipv4Keys[id])
+                : idForText(other.textKeys[id]);
+    }
+
+    public String name(int id) {
+        return textKeys[id] != null ? textKeys[id] : LogAnalyzer.formatIpv4(ipv4Keys[id]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Current capacity; per-source arrays of owners should be at least this long.
+     */
+    public int capacity() {
+        return ipv4Keys.length;
+    }
+
+    private int add(int ip, String text) {
+        if (size == ipv4Keys.length) {
+            ipv4Keys = Arrays.copyOf(ipv4Keys, size * 2);
+            textKeys = Arrays.copyOf(textKeys, size * 2);
+        }
+        ipv4Keys[size] = ip;
+        textKeys[size] = text;
+        return size++;
+    }
+}
@@ -0,0 +1,161 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Flags sources that log in successfully after at least one failure.
+ *
+ * Only order matters, not timing, so each source needs a failure count
+ * and two bits: whether it has succeeded at all, and whether a success
+ * came after a failure. That is enough to merge adjacent chunks exactly.
+ */
+public class SuccessAfterFailure {
+
+    private final SourceIndex sources = new SourceIndex();
+
+    private int[] failures;
+    private boolean[] succeeded;
+    private int[] firstSuccessAt;
+    private boolean[] flagged;
+    private int[] flaggedAt;
+    private int flaggedSources;
+
+    public SuccessAfterFailure() {
+        int capacity = sources.capacity();
+        this.failures = new int[capacity];
+        this.succeeded = new boolean[capacity];
+        this.firstSuccessAt = new int[capacity];
+        this.flagged = new boolean[capacity];
+        this.flaggedAt = new int[capacity];
+    }
+
+    // ================= RECORDING =================
+
+    public void failureIpv4(int ip) {
+        int id = ensureCapacity(sources.idForIpv4(ip));
+        failures[id]++;
+    }
+
+    public void failureText(String source) {
+        int id = ensureCapacity(sources.idForText(source));
+        failures[id]++;
+    }
+
+    public void successIpv4(int ip, int time) {
+        success(ensureCapacity(sources.idForIpv4(ip)), time);
+    }
+
+    public void successText(String source, int time) {
+        success(ensureCapacity(sources.idForText(source)), time);
+    }
+
+    private void success(int id, int time) {
+        if (!succeeded[id]) {
+            succeeded[id] = true;
+            firstSuccessAt[id] = time;
+        }
+        if (failures[id] > 0) {
+            flag(id, time);
+        }
+    }
+
+    // ================= MERGING =================
+
+    /**
+     * Appends the events tracked by {@code later}, which must cover input
+     * that directly follows this one.
+     */
+    public void merge(SuccessAfterFailure later) {
+        for (int other = 0; other < later.sources.size(); other++) {
+            int id = ensureCapacity(sources.idFor(later.sources, other));
+
+            // A later success follows every failure seen so far
+            if (failures[id] > 0 && later.succeeded[other]) {
+                flag(id, later.firstSuccessAt[other]);
+            } else if (later.flagged[other]) {
+                flag(id, later.flaggedAt[other]);
+            }
+            if (!succeeded[id] && later.succeeded[other]) {
+                succeeded[id] = true;
+                firstSuccessAt[id] = later.firstSuccessAt[other];
+            }
+            failures[id] += later.failures[other];
+        }
+    }
+
+    // ================= RESULTS =================
+
+    public void forEachFlagged(FailureWindows.SourceConsumer consumer) {
+        for (int id = 0; id < sources.size(); id++) {
+            if (flagged[id]) {
+                consumer.accept(sources.name(id), failures[id], flaggedAt[id]);
+            }
+        }
+    }
+
+    public int flaggedCount() {
+        return flaggedSources;
+    }
+
+    // ================= PERSISTENCE =================
+
+    public Map<String, SourceState> snapshot() {
+        Map<String, SourceState> snapshot = new LinkedHashMap<>();
+        for (int id = 0; id < sources.size(); id++) {
+            SourceState state = new SourceState();
+            state.failures = failures[id];
+            state.succeeded = succeeded[id];
+            state.firstSuccessAt = firstSuccessAt[id];
+            state.flagged = flagged[id];
+            state.flaggedAt = flaggedAt[id];
+            snapshot.put(sources.name(id), state);
+        }
+        return snapshot;
+    }
+
+    public void restore(Map<String, SourceState> snapshot) {
+        snapshot.forEach((source, state) -> {
+            int id = ensureCapacity(sources.idForName(source));
+            failures[id] += state.failures;
+            if (state.succeeded && !succeeded[id]) {
+                succeeded[id] = true;
+                firstSuccessAt[id] = state.firstSuccessAt;
+            }
+            if (state.flagged) {
+                flag(id, state.flaggedAt);
+            }
+        });
+    }
+
+    public static class SourceState {
+        public int failures;
+        public boolean succeeded;
+        public int firstSuccessAt;
+        public boolean flagged;
+        public int flaggedAt;
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    private void flag(int id, int time) {
+        if (!flagged[id]) {
+            flagged[id] = true;
+            flaggedAt[id] = time;
+            flaggedSources++;
+        }
+    }
+
+    private int ensureCapacity(int id) {
+        if (id >= failures.length) {
+            int capacity = sources.capacity();
+            failures = Arrays.copyOf(failures, capacity);
+            succeeded = Arrays.copyOf(succeeded, capacity);
+            firstSuccessAt = Arrays.copyOf(firstSuccessAt, capacity);
+            flagged = Arrays.copyOf(flagged, capacity);
+            flaggedAt = Arrays.copyOf(flaggedAt, capacity);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,143 @@
+package com.securelogx.securelogx_backend;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers how far each log file has been analysed.
+ *
+ * A re-run of the same file resumes from the stored offset and merges
+ * into the stored counters. Rotation (new inode), truncation or rewritten
+ * content is detected and forces a full scan.
+ */
+public class TailStateStore {
+
+    /** Bytes at the start of a log used to recognise the same content. */
+    static final int HEAD_FINGERPRINT_BYTES = 4096;
+
+    private final Path stateFile;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private Map<String, TailState> states;
+
+    public TailStateStore(Path stateFile) {
+        this.stateFile = stateFile;
+    }
+
+    // ================= PUBLIC METHODS =================
+
+    /**
+     * Returns the stored state for {@code log} if it can be resumed as-is,
+     * or {@code null} if the file must be scanned from the start.
+     */
+    public synchronized TailState findResumable(Path log) throws IOException {
+        TailState previous = load().get(key(log));
+        if (previous == null || previous.scan == null) {
+            return null;
+        }
+
+        long size = Files.size(log);
+
+        // Replaced by logrotate (create mode): different inode
+        if (!Objects.equals(previous.fileKey, fileKey(log))) {
+            return null;
+        }
+
+        // Truncated in place (copytruncate)
+        if (size < previous.size || size < previous.offset) {
+            return null;
+        }
+
+        // Truncated and refilled since the last run
+        if (!Objects.equals(previous.headHash, fingerprint(log, previous.headLength))) {
+            return null;
+        }
+
+        return previous;
+    }
+
+    public synchronized void save(
+            Path log,
+            long offset,
+            long size,
+            LogAnalyzer.ScanSnapshot scan
+    ) throws IOException {
+        TailState state = new TailState();
+        state.path = key(log);
+        state.offset = offset;
+        state.size = size;
+        state.fileKey = fileKey(log);
+        state.headLength = (int) Math.min(size, HEAD_FINGERPRINT_BYTES);
+        state.headHash = fingerprint(log, state.headLength);
+        state.scan = scan;
+
+        load().put(state.path, state);
+
+        // Write-then-rename so a crash never leaves a half-written state file
+        Files.createDirectories(stateFile.toAbsolutePath().getParent());
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        mapper.writeValue(temp.toFile(), states);
+        Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ================= INTERNAL HELPERS =================
+
+    private Map<String, TailState> load() throws IOException {
+        if (states == null) {
+            states = Files.exists(stateFile)
+                    ? mapper.readValue(stateFile.toFile(), new TypeReference<HashMap<String, TailState>>() {})
+                    : new HashMap<>();
+        }
+        return states;
+    }
+
+    static String key(Path log) {
+        return log.toAbsolutePath().normalize().toString();
+    }
+
+    private static String fileKey(Path log) throws IOException {
+        Object key = Files.readAttributes(log, BasicFileAttributes.class).fileKey();
+        return key != null ? key.toString() : null;
+    }
+
+    private static String fingerprint(Path log, int length) throws IOException {
+        try (InputStream in = Files.newInputStream(log)) {
+            byte[] head = in.readNBytes(length);
+            if (head.length < length) {
+                return null;
+            }
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(head)
+            );
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ================= STATE STRUCTURE =================
+
+    public static class TailState {
+        public String path;
+        public long offset;
+        public long size;
+        public String fileKey;
+        public int headLength;
+        public String headHash;
+        public LogAnalyzer.ScanSnapshot scan;
+    }
+}
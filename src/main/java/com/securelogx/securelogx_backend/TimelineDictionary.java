@@ -0,0 +1,65 @@
+package com.securelogx.securelogx_backend;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Process-wide string table for timeline actions, actors and fixed notes.
+ *
+ * Each distinct string is kept once and named by a small number, so a
+ * timeline stores numbers instead of references. Lookups by id are plain
+ * array reads; interning a string seen before is one map read, and a new
+ * string never takes a lock. Entries are never removed, so only values
+ * from a small set belong here; free-text notes stay with their timeline.
+ */
+final class TimelineDictionary {
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    static final TimelineDictionary ACTIONS = new TimelineDictionary((1 << 8) - 1);
+    static final TimelineDictionary ACTORS = new TimelineDictionary((1 << 24) - 1);
+    static final TimelineDictionary NOTES = new TimelineDictionary((1 << 16) - 1);
+
+    private final int capacity;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicReferenceArray<String[]> chunks;
+
+    private TimelineDictionary(int capacity) {
+        this.capacity = capacity;
+        this.chunks = new AtomicReferenceArray<>((int) (((long) capacity + CHUNK_SIZE - 1) >>> CHUNK_BITS));
+    }
+
+    /**
+     * Number for {@code value}, assigning one on first sight. Two threads
+     * interning the same new string agree on the number; the loser's
+     * spare slot is simply never used.
+     */
+    int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        int fresh = next.getAndIncrement();
+        if (fresh < 0 || fresh >= capacity) {
+            throw new IllegalStateException("Timeline dictionary is full");
+        }
+        String[] chunk = chunks.get(fresh >>> CHUNK_BITS);
+        if (chunk == null) {
+            chunks.compareAndSet(fresh >>> CHUNK_BITS, null, new String[Math.min(CHUNK_SIZE, capacity)]);
+            chunk = chunks.get(fresh >>> CHUNK_BITS);
+        }
+        // Written before the id is published through the map
+        chunk[fresh & (CHUNK_SIZE - 1)] = value;
+
+        Integer prior = ids.putIfAbsent(value, fresh);
+        return prior != null ? prior : fresh;
+    }
+
+    String lookup(int id) {
+        return chunks.get(id >>> CHUNK_BITS)[id & (CHUNK_SIZE - 1)];
+    }
+}
@@ -1,30 +1,64 @@
 package com.securelogx.securelogx_backend;
 
 import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.File;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 public class Vault {
 
-    private SecretKeySpec key(String password) throws Exception {
+    // Shared by all vaults; each file keeps at most two segments per worker in memory
+    private static final int WORKERS = Config.getCryptoThreads();
+    private static final ExecutorService CRYPTO_POOL = Executors.newFixedThreadPool(
+            WORKERS,
+            runnable -> {
+                Thread thread = new Thread(runnable, "securelogx-vault");
+                thread.setDaemon(true);
+                return thread;
+            }
+    );
+
+    private final KeyManager keyManager = KeyManager.shared();
+
+    /**
+     * Key for files encrypted before the key manager existed.
+     */
+    private SecretKeySpec legacyKey(String password) throws Exception {
         byte[] key = MessageDigest.getInstance("SHA-256")
                 .digest(password.getBytes());
         return new SecretKeySpec(Arrays.copyOf(key, 16), "AES");
     }
 
+    /** Key for a segmented file's salt; version 1 files have none. */
+    private Function<byte[], SecretKey> keys(String password) {
+        return salt -> salt == null
+                ? keyManager.legacyReportKey(password)
+                : keyManager.deriveKey(password, salt);
+    }
+
     public String encryptFile(String path, String password) {
         try {
-            File inputFile = new File(path);
-            byte[] data = Files.readAllBytes(inputFile.toPath());
-
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.ENCRYPT_MODE, key(password));
-
             String encPath = path + ".enc";
-            Files.write(new File(encPath).toPath(), cipher.doFinal(data));
+            byte[] salt = keyManager.encryptionSalt();
+
+            ParallelSegmentCipher.encrypt(
+                    Path.of(path),
+                    Path.of(encPath),
+                    keyManager.deriveKey(password, salt),
+                    salt,
+                    Config.getArtifactCodec(),
+                    CRYPTO_POOL,
+                    WORKERS * 2
+            );
 
             System.out.println("✅ Encrypted file created at: " + encPath);
             return encPath;
@@ -42,13 +76,33 @@ public class Vault {
             System.out.println("🔐 Decrypting file: " + encryptedFile.getAbsolutePath());
             System.out.println("📁 Exists? " + encryptedFile.exists());
 
-            byte[] data = Files.readAllBytes(encryptedFile.toPath());
+            String outPath = path.replace(".enc", "_decrypted.json");
 
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.DECRYPT_MODE, key(password));
+            byte[] magic;
+            try (InputStream in = Files.newInputStream(encryptedFile.toPath())) {
+                magic = in.readNBytes(SegmentedCipherOutputStream.MAGIC.length + 1);
+            }
 
-            String outPath = path.replace(".enc", "_decrypted.json");
-            Files.write(new File(outPath).toPath(), cipher.doFinal(data));
+            if (SegmentedArtifactReader.isSeekable(magic)) {
+                ParallelSegmentCipher.decrypt(
+                        encryptedFile.toPath(),
+                        Path.of(outPath),
+                        keys(password),
+                        CRYPTO_POOL,
+                        WORKERS * 2
+                );
+            } else if (SegmentedCipherInputStream.isSegmented(magic)) {
+                // Written before segments were indexed: decrypt in order
+                try (InputStream in = new SegmentedCipherInputStream(
+                        Files.newInputStream(encryptedFile.toPath()), keys(password))) {
+                    Files.copy(in, Path.of(outPath), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                Cipher cipher = Cipher.getInstance("AES");
+                cipher.init(Cipher.DECRYPT_MODE, legacyKey(password));
+                byte[] data = Files.readAllBytes(encryptedFile.toPath());
+                Files.write(new File(outPath).toPath(), cipher.doFinal(data));
+            }
 
             System.out.println("✅ Decrypted file created at: " + outPath);
             return outPath;
@@ -1,20 +1,35 @@
 package com.securelogx.securelogx_backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securelogx.securelogx_backend.AnalysisJob;
+import com.securelogx.securelogx_backend.AnalysisJobService;
+import com.securelogx.securelogx_backend.AnalysisProgress;
+import com.securelogx.securelogx_backend.ArtifactMetrics;
+import com.securelogx.securelogx_backend.Config;
 import com.securelogx.securelogx_backend.Incident;
+import com.securelogx.securelogx_backend.IncidentQuery;
 import com.securelogx.securelogx_backend.SecureLogXService;
 import com.securelogx.securelogx_backend.dto.AnalyzeRequest;
 import com.securelogx.securelogx_backend.dto.ApiResponse;
 import com.securelogx.securelogx_backend.dto.DecryptRequest;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 @CrossOrigin(
         origins = "http://localhost:8080",
@@ -24,10 +39,19 @@ import java.util.Map;
 @RequestMapping("/securelogx")
 public class SecureLogXController {
 
+    private static final int DEFAULT_PAGE_LINES = 200;
+    private static final int DEFAULT_PAGE_BYTES = 64 * 1024;
+    private static final int DEFAULT_PAGE_INCIDENTS = 50;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
     private final SecureLogXService service;
+    private final AnalysisJobService jobService;
 
-    public SecureLogXController(SecureLogXService service) {
+    public SecureLogXController(SecureLogXService service, AnalysisJobService jobService) {
         this.service = service;
+        this.jobService = jobService;
     }
 
     // ================= AUTH HELPERS =================
@@ -85,14 +109,10 @@ public class SecureLogXController {
                     .body(new ApiResponse(false, "Uploaded file is empty.", null));
         }
 
-        Path tempFile = null;
-
-        try {
-            tempFile = Files.createTempFile("securelogx-upload-", ".log");
-            file.transferTo(tempFile.toFile());
+        try (InputStream in = file.getInputStream()) {
 
-            Object incidents = service.analyzeAndReturnIncidents(
-                    tempFile.toString(),
+            Object incidents = service.analyzeStreamAndReturnIncidents(
+                    in,
                     getAuthenticatedUser(session)
             );
 
@@ -103,13 +123,124 @@ public class SecureLogXController {
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse(false, e.getMessage(), null));
-        } finally {
-            try {
-                if (tempFile != null) Files.deleteIfExists(tempFile);
-            } catch (Exception ignored) {}
         }
     }
 
+    // ================= ANALYZE (RAW STREAM) =================
+
+    /**
+     * Analyzes the raw request body (plain or gzipped log) as it arrives.
+     * Unlike multipart uploads, nothing is spooled to disk by the container.
+     */
+    @PostMapping(value = "/analyze/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ApiResponse> analyzeStream(
+            HttpServletRequest request,
+            HttpSession session
+    ) {
+        if (!isAuthenticated(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse(false, "Authentication required.", null));
+        }
+
+        try (InputStream in = request.getInputStream()) {
+
+            Object incidents = service.analyzeStreamAndReturnIncidents(
+                    in,
+                    getAuthenticatedUser(session)
+            );
+
+            return ResponseEntity.ok(
+                    new ApiResponse(true, "Streamed log analyzed successfully.", incidents)
+            );
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    // ================= ANALYZE (ASYNC JOBS) =================
+
+    /**
+     * Queues a path-based analysis and returns its job id straight away.
+     * Answers 429 with {@code Retry-After} when the job queue is full.
+     */
+    @PostMapping("/analyze/jobs")
+    public ResponseEntity<ApiResponse> submitAnalysisJob(
+            @RequestBody AnalyzeRequest request,
+            HttpSession session
+    ) {
+        if (!isAuthenticated(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse(false, "Authentication required.", null));
+        }
+
+        try {
+            AnalysisJob job = jobService.submit(
+                    request.getLogPath(),
+                    getAuthenticatedUser(session)
+            );
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse(true, "Analysis job queued.", jobPayload(job)));
+
+        } catch (RejectedExecutionException e) {
+            int retryAfter = Config.getAnalysisRetryAfterSeconds();
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                    .body(new ApiResponse(
+                            false,
+                            "Analysis queue is full. Retry in " + retryAfter + " seconds.",
+                            Map.of("retryAfterSeconds", retryAfter)
+                    ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/analyze/jobs/{jobId}")
+    public ResponseEntity<ApiResponse> getAnalysisJob(
+            @PathVariable String jobId,
+            HttpSession session
+    ) {
+        if (!isAuthenticated(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse(false, "Authentication required.", null));
+        }
+
+        try {
+            AnalysisJob job = jobService.getJob(jobId, getAuthenticatedUser(session));
+
+            return ResponseEntity.ok(
+                    new ApiResponse(true, "Analysis job retrieved.", jobPayload(job))
+            );
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse(false, "Analysis job not found.", null));
+        }
+    }
+
+    private Map<String, Object> jobPayload(AnalysisJob job) {
+        AnalysisProgress progress = job.getProgress();
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("jobId", job.getJobId());
+        payload.put("status", job.getStatus());
+        payload.put("submittedAt", job.getSubmittedAt());
+        payload.put("startedAt", job.getStartedAt());
+        payload.put("finishedAt", job.getFinishedAt());
+        payload.put("bytesTotal", progress.getBytesTotal());
+        payload.put("bytesProcessed", progress.getBytesProcessed());
+        payload.put("linesProcessed", progress.getLinesProcessed());
+        payload.put("linesPerSecond", job.getLinesPerSecond());
+        payload.put("incidentsFound", progress.getIncidentsFound());
+        payload.put("error", job.getError());
+        payload.put("incidents", job.getIncidents());
+        return payload;
+    }
+
     // ================= INCIDENT READ =================
 
     @GetMapping("/incidents")
@@ -124,6 +255,60 @@ public class SecureLogXController {
         );
     }
 
+    /**
+     * One page of incidents, filtered and sorted on the server. Pass the
+     * returned {@code nextCursor} back as {@code cursor} for the next page.
+     */
+    @GetMapping("/incidents/query")
+    public ResponseEntity<ApiResponse> queryIncidents(
+            @RequestParam(required = false) String ip,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer minRisk,
+            @RequestParam(required = false) Integer maxRisk,
+            @RequestParam(required = false) String createdFrom,
+            @RequestParam(required = false) String createdTo,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpSession session
+    ) {
+        if (!isAuthenticated(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse(false, "Authentication required.", null));
+        }
+
+        try {
+            IncidentQuery query = new IncidentQuery();
+            query.setIpAddress(ip);
+            query.setSeverity(severity);
+            if (status != null) {
+                query.setStatus(Incident.IncidentStatus.valueOf(status.trim().toUpperCase()));
+            }
+            query.setMinRisk(minRisk);
+            query.setMaxRisk(maxRisk);
+            if (createdFrom != null) {
+                query.setCreatedFrom(LocalDateTime.parse(createdFrom));
+            }
+            if (createdTo != null) {
+                query.setCreatedTo(LocalDateTime.parse(createdTo));
+            }
+            if (sort != null) {
+                query.setSort(IncidentQuery.Sort.valueOf(sort.trim().toUpperCase()));
+            }
+            query.setCursor(cursor);
+            query.setLimit(limit != null ? limit : DEFAULT_PAGE_INCIDENTS);
+
+            return ResponseEntity.ok(
+                    new ApiResponse(true, "Incidents retrieved.", service.queryIncidents(query))
+            );
+
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse(false, e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/incidents/{incidentId}")
     public ResponseEntity<ApiResponse> getIncident(
             @PathVariable String incidentId,
@@ -165,12 +350,11 @@ public class SecureLogXController {
         }
 
         try {
-            Incident incident = service.getIncidentById(incidentId);
-
             Incident.IncidentStatus newStatus =
                     Incident.IncidentStatus.valueOf(request.getStatus().toUpperCase());
 
-            incident.updateStatus(
+            Incident incident = service.updateIncidentStatus(
+                    incidentId,
                     newStatus,
                     getAuthenticatedUser(session)
             );
@@ -195,8 +379,30 @@ public class SecureLogXController {
         }
     }
 
+    // ================= ARTIFACT METRICS =================
+
+    /**
+     * Compression ratio and per-stage time of the artifact pipeline.
+     */
+    @GetMapping("/metrics/artifacts")
+    public ResponseEntity<ApiResponse> getArtifactMetrics(HttpSession session) {
+        if (!isAuthenticated(session)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse(false, "Authentication required.", null));
+        }
+
+        return ResponseEntity.ok(
+                new ApiResponse(true, "Artifact metrics retrieved.", ArtifactMetrics.snapshot())
+        );
+    }
+
     // ================= DECRYPT (FORENSICS ONLY) =================
 
+    /**
+     * Decrypts the whole artifact, or one page of it when the request has
+     * a line range ({@code startLine}, {@code lineCount}) or a byte range
+     * ({@code offset}, {@code limit}).
+     */
     @PostMapping("/decrypt")
     public ResponseEntity<ApiResponse> decrypt(
             @RequestBody DecryptRequest request,
@@ -208,11 +414,30 @@ public class SecureLogXController {
         }
 
         try {
-            Object report = service.decryptAndReadReport(
-                    request.getEncryptedPath(),
-                    request.getPassword(),
-                    getAuthenticatedUser(session)
-            );
+            Object report;
+            if (request.getStartLine() != null || request.getLineCount() != null) {
+                report = service.decryptReportLines(
+                        request.getEncryptedPath(),
+                        request.getPassword(),
+                        getAuthenticatedUser(session),
+                        request.getStartLine() != null ? request.getStartLine() : 0,
+                        request.getLineCount() != null ? request.getLineCount() : DEFAULT_PAGE_LINES
+                );
+            } else if (request.getOffset() != null || request.getLimit() != null) {
+                report = service.decryptReportBytes(
+                        request.getEncryptedPath(),
+                        request.getPassword(),
+                        getAuthenticatedUser(session),
+                        request.getOffset() != null ? request.getOffset() : 0,
+                        request.getLimit() != null ? request.getLimit() : DEFAULT_PAGE_BYTES
+                );
+            } else {
+                report = service.decryptAndReadReport(
+                        request.getEncryptedPath(),
+                        request.getPassword(),
+                        getAuthenticatedUser(session)
+                );
+            }
 
             return ResponseEntity.ok(
                     new ApiResponse(true, "Decryption successful", report)
@@ -230,6 +455,63 @@ public class SecureLogXController {
         }
     }
 
+    /**
+     * Streams the decrypted artifact as plain text while it is decrypted,
+     * using chunked transfer; gzipped when the client accepts it. Memory use
+     * and time to first byte do not grow with the artifact.
+     */
+    @PostMapping("/decrypt/stream")
+    public ResponseEntity<StreamingResponseBody> decryptStream(
+            @RequestBody DecryptRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpSession session
+    ) {
+        if (!isAuthenticated(session)) {
+            return jsonError(HttpStatus.UNAUTHORIZED, "Authentication required.");
+        }
+
+        InputStream report;
+        try {
+            report = service.openReportStream(
+                    request.getEncryptedPath(),
+                    request.getPassword(),
+                    getAuthenticatedUser(session)
+            );
+        } catch (SecurityException e) {
+            return jsonError(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (Exception e) {
+            return jsonError(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to decrypt incident report.");
+        }
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            try (InputStream in = report) {
+                if (gzip) {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+                    in.transferTo(compressed);
+                    compressed.finish();
+                } else {
+                    in.transferTo(out);
+                }
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> jsonError(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> mapper.writeValue(out, new ApiResponse(false, message, null)));
+    }
+
     // ================= REQUEST DTO (LOCAL) =================
 
     public static class StatusUpdateRequest {
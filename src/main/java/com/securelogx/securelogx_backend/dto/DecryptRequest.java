@@ -5,6 +5,12 @@ public class DecryptRequest {
     private String encryptedPath;
     private String password;
 
+    // Optional page: a byte range or a line range (0-based)
+    private Long offset;
+    private Integer limit;
+    private Long startLine;
+    private Integer lineCount;
+
     public DecryptRequest() {}
 
     public String getEncryptedPath() {
@@ -26,5 +32,36 @@ public class DecryptRequest {
     public void setPassword(String password) {
         this.password = password;
     }
-}
 
+    public Long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(Long offset) {
+        this.offset = offset;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public Long getStartLine() {
+        return startLine;
+    }
+
+    public void setStartLine(Long startLine) {
+        this.startLine = startLine;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+}
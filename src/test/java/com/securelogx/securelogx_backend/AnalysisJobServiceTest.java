@@ -0,0 +1,39 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AnalysisJobServiceTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void jobsEndAsFailedWhenTheAnalysisThrowsAnError() throws Exception {
+		SecureLogXService failing = new SecureLogXService(dir.toString()) {
+			@Override
+			public Collection<Incident> analyzeAndReturnIncidents(
+					String logPath, String password, boolean incremental, AnalysisProgress progress) {
+				throw new OutOfMemoryError("Java heap space");
+			}
+		};
+		try {
+			AnalysisJobService jobs = new AnalysisJobService(failing);
+			AnalysisJob job = jobs.submit("auth.log", "alice");
+			for (int i = 0; i < 500 && !job.isFinished(); i++) {
+				Thread.sleep(10);
+			}
+
+			assertEquals(AnalysisJob.JobStatus.FAILED, job.getStatus());
+			assertTrue(job.getError().contains("Java heap space"), job.getError());
+		} finally {
+			failing.shutdown();
+		}
+	}
+}
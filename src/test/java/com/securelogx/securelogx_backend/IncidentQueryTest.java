@@ -0,0 +1,118 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncidentQueryTest {
+
+	private static final String COLD_AFTER_DAYS = "securelogx.incidents.cold-after-days";
+
+	@TempDir
+	Path dir;
+
+	@AfterEach
+	void clearColdAge() {
+		System.clearProperty(COLD_AFTER_DAYS);
+	}
+
+	@Test
+	void cursorPagesCoverMemoryAndColdSegmentsOnce() throws IOException {
+		List<Incident> detected = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			detected.add(new Incident("INC-" + i, "10.0." + i % 4 + "." + i, "BRUTE_FORCE",
+					3 + i % 17, i % 3 == 0 ? "HIGH" : "LOW", "reports/a" + i % 5 + ".enc"));
+		}
+
+		List<List<String>> hot;
+		try (IncidentStore store = new IncidentStore(dir)) {
+			store.upsert(detected);
+			for (int i = 0; i < 300; i += 2) {
+				Incident incident = store.get("INC-" + i);
+				incident.updateStatus(Incident.IncidentStatus.INVESTIGATING, "alice");
+				incident.updateStatus(Incident.IncidentStatus.MITIGATED, "alice");
+				incident.updateStatus(Incident.IncidentStatus.CLOSED, "alice");
+			}
+			store.sync();
+
+			hot = pageAll(store);
+			System.setProperty(COLD_AFTER_DAYS, "0");
+			assertEquals(150, store.moveColdIncidents());
+			assertEquals(hot, pageAll(store));
+		}
+
+		// Cold incidents are only reachable through their segments after a restart
+		try (IncidentStore store = new IncidentStore(dir)) {
+			assertEquals(hot, pageAll(store));
+			assertEquals(300, hot.get(0).size());
+			assertEquals(150, page(store, query -> query.setStatus(Incident.IncidentStatus.CLOSED), null).size());
+			assertEquals(150, page(store, query -> query.setStatus(Incident.IncidentStatus.OPEN), null).size());
+			assertEquals(100, page(store, query -> query.setSeverity("HIGH"), null).size());
+			assertEquals(detected.stream().filter(i -> i.getRiskScore() >= 50).count(),
+					page(store, query -> query.setMinRisk(50), null).size());
+		}
+	}
+
+	/** Ids of every page order, each read seven at a time. */
+	private static List<List<String>> pageAll(IncidentStore store) {
+		List<List<String>> orders = new ArrayList<>();
+		for (IncidentQuery.Sort sort : IncidentQuery.Sort.values()) {
+			orders.add(page(store, query -> query.setSort(sort), sort));
+		}
+		orders.add(page(store, query -> query.setIpAddress("10.0.1.9"), null));
+		return orders;
+	}
+
+	private static List<String> page(IncidentStore store, Consumer<IncidentQuery> filter, IncidentQuery.Sort sort) {
+		IncidentQuery query = new IncidentQuery();
+		filter.accept(query);
+		query.setLimit(7);
+
+		List<Incident> seen = new ArrayList<>();
+		while (true) {
+			IncidentPage page = store.query(query);
+			assertTrue(page.getIncidents().size() <= 7);
+			seen.addAll(page.getIncidents());
+			if (page.getNextCursor() == null) {
+				break;
+			}
+			query.setCursor(page.getNextCursor());
+		}
+
+		List<String> ids = new ArrayList<>();
+		Set<String> distinct = new HashSet<>();
+		for (int i = 0; i < seen.size(); i++) {
+			ids.add(seen.get(i).getIncidentId());
+			distinct.add(seen.get(i).getIncidentId());
+			if (i > 0 && sort != null) {
+				assertTrue(inOrder(sort).test(new Incident[]{seen.get(i - 1), seen.get(i)}), sort + " at " + i);
+			}
+		}
+		assertEquals(ids.size(), distinct.size());
+		return ids;
+	}
+
+	private static Predicate<Incident[]> inOrder(IncidentQuery.Sort sort) {
+		switch (sort) {
+			case OLDEST:
+				return pair -> !pair[0].getCreatedAt().isAfter(pair[1].getCreatedAt());
+			case RISK:
+				return pair -> pair[0].getRiskScore() >= pair[1].getRiskScore();
+			case NEWEST:
+			default:
+				return pair -> !pair[0].getCreatedAt().isBefore(pair[1].getCreatedAt());
+		}
+	}
+}
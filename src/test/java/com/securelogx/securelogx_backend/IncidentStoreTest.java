@@ -0,0 +1,220 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncidentStoreTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void replayStopsAtTornTail() throws IOException {
+		Path segment = IncidentLog.segmentPath(dir, 1);
+		long intact;
+		try (IncidentStore store = new IncidentStore(dir)) {
+			store.upsert(List.of(incident("INC-1"), incident("INC-2")));
+			store.get("INC-1").addAnalystNote("alice", "kept");
+			store.sync();
+			intact = Files.size(segment);
+			store.get("INC-1").addAnalystNote("alice", "torn");
+			store.sync();
+		}
+
+		// Cut the last record in half, then add a frame whose CRC is wrong
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.truncate(intact + (Files.size(segment) - intact) / 2);
+		}
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.allocate(12).putInt(4).putInt(0xBADC0DE).putInt(7).flip());
+		}
+
+		try (IncidentStore store = new IncidentStore(dir)) {
+			assertEquals(2, store.size());
+			List<String> notes = notes(store.get("INC-1"));
+			assertEquals(List.of("kept"), notes);
+		}
+	}
+
+	@Test
+	void concurrentWritersShareCommitsAndSurviveRestart() throws Exception {
+		List<Incident> detected = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			detected.add(incident("INC-" + i));
+		}
+		try (IncidentStore store = new IncidentStore(dir)) {
+			store.upsert(detected);
+			ExecutorService pool = Executors.newFixedThreadPool(8);
+			try {
+				List<Future<?>> writers = new ArrayList<>();
+				for (int t = 0; t < 8; t++) {
+					int thread = t;
+					writers.add(pool.submit(() -> {
+						for (int n = 0; n < 200; n++) {
+							store.get("INC-" + (n % 8)).addAnalystNote("analyst-" + thread, "note " + n);
+							if (n % 50 == 0) {
+								store.sync();
+							}
+						}
+						store.sync();
+					}));
+				}
+				for (Future<?> writer : writers) {
+					writer.get();
+				}
+			} finally {
+				pool.shutdown();
+			}
+			store.get("INC-0").updateStatus(Incident.IncidentStatus.INVESTIGATING, "alice");
+			store.sync();
+		}
+
+		try (IncidentStore store = new IncidentStore(dir)) {
+			int events = 0;
+			for (int i = 0; i < 8; i++) {
+				events += notes(store.get("INC-" + i)).size();
+			}
+			assertEquals(8 * 200, events);
+			assertEquals(Incident.IncidentStatus.INVESTIGATING, store.get("INC-0").getStatus());
+		}
+	}
+
+	@Test
+	void snapshotTakesOverFromReplayedSegments() throws IOException {
+		try (IncidentStore store = new IncidentStore(dir)) {
+			store.upsert(List.of(incident("INC-1"), incident("INC-2")));
+			store.get("INC-2").updateStatus(Incident.IncidentStatus.INVESTIGATING, "alice");
+			store.sync();
+		}
+
+		// Replaying segment 1 snapshots everything and starts segment 2
+		try (IncidentStore store = new IncidentStore(dir)) {
+			store.get("INC-1").addAnalystNote("bob", "after the snapshot");
+			store.sync();
+		}
+		assertFalse(Files.exists(IncidentLog.segmentPath(dir, 1)));
+		assertTrue(Files.exists(dir.resolve(String.format("snapshot-%016d.bin", 2))));
+		assertTrue(Files.exists(IncidentLog.segmentPath(dir, 2)));
+
+		try (IncidentStore store = new IncidentStore(dir)) {
+			assertEquals(2, store.size());
+			assertEquals(Incident.IncidentStatus.INVESTIGATING, store.get("INC-2").getStatus());
+			assertTrue(notes(store.get("INC-1")).contains("after the snapshot"));
+		}
+	}
+
+	@Test
+	void logStartsNewSegmentPastItsLimit() throws IOException {
+		List<Long> rotated = new CopyOnWriteArrayList<>();
+		try (IncidentLog log = new IncidentLog(dir, 1, 64, rotated::add)) {
+			for (int i = 0; i < 4; i++) {
+				log.append(new byte[100]);
+				log.sync();
+			}
+		}
+		assertEquals(List.of(2L, 3L, 4L, 5L), rotated);
+		assertTrue(Files.size(IncidentLog.segmentPath(dir, 1)) > 100);
+	}
+
+	@Test
+	void reanalysedLogsUpdateTheIncidentsTheyRaised() throws IOException {
+		Path log = dir.resolve("auth.log");
+		Path reports = dir.resolve("reports");
+		Files.writeString(log, failures(0, 3));
+
+		String id;
+		SecureLogXService service = new SecureLogXService(reports.toString());
+		try {
+			Incident first = single(service.analyzeAndReturnIncidents(log.toString(), "pw", false));
+			id = first.getIncidentId();
+			assertEquals(3, first.getFailedAttempts());
+			assertEquals("MEDIUM", first.getSeverity());
+			int risk = first.getRiskScore();
+
+			// The same log again changes nothing but the timeline
+			assertEquals(id, single(service.analyzeAndReturnIncidents(log.toString(), "pw", false)).getIncidentId());
+			assertEquals(1, service.getAllIncidents().size());
+			assertEquals(3, service.getIncidentById(id).getFailedAttempts());
+
+			// Grown within the same window: the stored incident is updated
+			Files.writeString(log, failures(3, 6), StandardOpenOption.APPEND);
+			Incident grown = single(service.analyzeAndReturnIncidents(log.toString(), "pw", false));
+			assertEquals(id, grown.getIncidentId());
+			assertEquals(1, service.getAllIncidents().size());
+			assertEquals(6, grown.getFailedAttempts());
+			assertEquals("HIGH", grown.getSeverity());
+			assertTrue(grown.getRiskScore() > risk);
+			assertEquals(List.of("Detected again by analysis engine (no change)",
+							"Detected again by analysis engine (attempts 3 → 6, severity MEDIUM → HIGH)"),
+					redetections(service.getIncidentById(id)));
+		} finally {
+			service.shutdown();
+		}
+
+		// Updates were journaled, not just made in memory
+		try (IncidentStore store = new IncidentStore(reports.resolve("incidents"))) {
+			assertEquals(1, store.size());
+			assertEquals(6, store.get(id).getFailedAttempts());
+			assertEquals("HIGH", store.get(id).getSeverity());
+			assertEquals(2, redetections(store.get(id)).size());
+		}
+	}
+
+	private static Incident single(Collection<Incident> incidents) {
+		assertEquals(1, incidents.size());
+		return incidents.iterator().next();
+	}
+
+	/** Redetection notes without the artifact, which differs on every run. */
+	private static List<String> redetections(Incident incident) {
+		List<String> notes = new ArrayList<>();
+		for (Incident.TimelineEvent event : incident.getTimeline()) {
+			if ("INCIDENT_REDETECTED".equals(event.getAction())) {
+				notes.add(event.getNote().substring(0, event.getNote().indexOf(", evidence in")));
+			}
+		}
+		return notes;
+	}
+
+	/** Failed logins from one source, ten seconds apart. */
+	private static String failures(int from, int to) {
+		StringBuilder lines = new StringBuilder();
+		for (int i = from; i < to; i++) {
+			lines.append(String.format("Mar  1 10:00:%02d web-01 sshd[100]: Failed password for root from 10.0.0.5 port 22 ssh2%n",
+					i * 10));
+		}
+		return lines.toString();
+	}
+
+	private static Incident incident(String id) {
+		return new Incident(id, "10.0.0.1", "BRUTE_FORCE", 5, "HIGH", "reports/" + id + ".enc");
+	}
+
+	private static List<String> notes(Incident incident) {
+		List<String> notes = new ArrayList<>();
+		for (Incident.TimelineEvent event : incident.getTimeline()) {
+			if ("ANALYST_NOTE".equals(event.getAction())) {
+				notes.add(event.getNote());
+			}
+		}
+		return notes;
+	}
+}
@@ -0,0 +1,145 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncidentTimelineTest {
+
+	private static final int THREADS = 16;
+	private static final int ROUNDS = 500;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void concurrentWritersAndReadersSeeOneOrder() throws Exception {
+		List<Incident> incidents = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			incidents.add(new Incident("INC-" + i, "10.0.0." + i, 5, "HIGH", "reports/shared.enc"));
+		}
+		AtomicInteger transitions = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> running = new ArrayList<>();
+		try {
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				running.add(pool.submit(() -> {
+					start.await();
+					for (int round = 0; round < ROUNDS; round++) {
+						Incident incident = incidents.get(round % incidents.size());
+						switch (thread % 4) {
+							case 0:
+								Incident.recordEvidenceAccess(incidents, "auditor-" + thread, "bytes " + round + "-" + (round + 99));
+								break;
+							case 1:
+								incident.addAnalystNote("analyst-" + thread, "note " + thread + "/" + round);
+								break;
+							case 2:
+								Incident.IncidentStatus next = next(incident.getStatus());
+								try {
+									if (next != null) {
+										incident.updateStatus(next, "analyst-" + thread);
+										transitions.incrementAndGet();
+									}
+								} catch (IllegalStateException lostRace) {
+									// Another analyst moved it first
+								}
+								break;
+							default:
+								assertConsistent(incident.getTimeline(), incident.getStatus());
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : running) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		// Every incident reached CLOSED exactly once through each state
+		assertEquals(3 * incidents.size(), transitions.get());
+		int perIncident = 4 * ROUNDS;
+		for (Incident incident : incidents) {
+			List<Incident.TimelineEvent> timeline = incident.getTimeline();
+			assertEquals(Incident.IncidentStatus.CLOSED, incident.getStatus());
+			assertConsistent(timeline, incident.getStatus());
+			assertEquals(3 + perIncident + ROUNDS + 3, timeline.size());
+			assertEquals(perIncident, count(timeline, "EVIDENCE_ACCESSED"));
+			assertEquals(ROUNDS, count(timeline, "ANALYST_NOTE"));
+		}
+	}
+
+	@Test
+	void longTimelinesSurviveRestart() throws IOException {
+		List<List<String>> written = new ArrayList<>();
+		try (IncidentStore store = new IncidentStore(dir)) {
+			store.upsert(List.of(new Incident("INC-1", "10.0.0.1", 5, "HIGH", null)));
+			Incident incident = store.get("INC-1");
+			for (int i = 0; i < 1_000; i++) {
+				if (i % 3 == 0) {
+					incident.addAnalystNote("alice", "note " + i);
+				} else {
+					incident.recordEvidenceAccess("bob", "range " + i);
+				}
+			}
+			incident.updateStatus(Incident.IncidentStatus.INVESTIGATING, "alice");
+			store.sync();
+			written.add(describe(incident.getTimeline()));
+		}
+
+		try (IncidentStore store = new IncidentStore(dir)) {
+			Incident incident = store.get("INC-1");
+			assertEquals(Incident.IncidentStatus.INVESTIGATING, incident.getStatus());
+			assertEquals(written.get(0), describe(incident.getTimeline()));
+			assertEquals(incident.getTimeline().get(0).getTimestamp(), incident.getCreatedAt());
+		}
+	}
+
+	/** Status changes in a snapshot follow the lifecycle and end at {@code status} or before it. */
+	private static void assertConsistent(List<Incident.TimelineEvent> timeline, Incident.IncidentStatus status) {
+		Incident.IncidentStatus seen = Incident.IncidentStatus.OPEN;
+		for (Incident.TimelineEvent event : timeline) {
+			if ("STATUS_CHANGED".equals(event.getAction())) {
+				Incident.IncidentStatus next = next(seen);
+				assertEquals("Status changed from " + seen + " to " + next, event.getNote());
+				seen = next;
+			}
+		}
+		assertTrue(seen.ordinal() <= status.ordinal(), seen + " after " + status);
+	}
+
+	private static Incident.IncidentStatus next(Incident.IncidentStatus status) {
+		Incident.IncidentStatus[] statuses = Incident.IncidentStatus.values();
+		return status.ordinal() + 1 < statuses.length ? statuses[status.ordinal() + 1] : null;
+	}
+
+	private static long count(List<Incident.TimelineEvent> timeline, String action) {
+		return timeline.stream().filter(event -> action.equals(event.getAction())).count();
+	}
+
+	private static List<String> describe(List<Incident.TimelineEvent> timeline) {
+		List<String> described = new ArrayList<>();
+		for (Incident.TimelineEvent event : timeline) {
+			described.add(event.getAction() + "|" + event.getActor() + "|" + event.getNote() + "|" + event.getTimestamp());
+		}
+		return described;
+	}
+}
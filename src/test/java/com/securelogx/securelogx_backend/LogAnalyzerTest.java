@@ -0,0 +1,134 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogAnalyzerTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void parallelScanFindsWhatSequentialScanFinds() throws IOException {
+		Path log = dir.resolve("auth.log");
+		Random random = new Random(42);
+		StringBuilder lines = new StringBuilder();
+		for (int second = 0; second < 20_000; second++) {
+			int host = random.nextInt(300);
+			String message;
+			switch (random.nextInt(10)) {
+				case 0:
+					message = "Invalid user admin from 10.1." + host % 7 + "." + host + " port 4000";
+					break;
+				case 1:
+					message = "Accepted password for root from 10.0." + host % 5 + "." + host + " port 22 ssh2";
+					break;
+				case 2:
+					message = "pam_unix(sshd:auth): authentication failure; logname= uid=0 euid=0 tty=ssh ruser= rhost=172.16.0." + host % 50;
+					break;
+				default:
+					message = "Failed password for root from 10.0." + host % 5 + "." + host + " port " + (1000 + second % 9) + " ssh2";
+			}
+			lines.append(String.format("Mar %2d %02d:%02d:%02d web-01 sshd[%d]: %s%n",
+					1 + second / 86_400, second / 3600 % 24, second / 60 % 60, second % 60, 1000 + host, message));
+		}
+		Files.write(log, lines.toString().getBytes(StandardCharsets.UTF_8));
+
+		LogAnalyzer analyzer = new LogAnalyzer();
+		LogReader reader = new LogReader();
+		List<String> sequential = describe(analyzer.analyze(reader, log.toString()));
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<String> parallel = describe(analyzer.scanParallel(reader, log.toString(), pool).join().toIncidents());
+			assertFalse(sequential.isEmpty());
+			assertEquals(sequential, parallel);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void mergedWindowsMatchOneWindowOverAllInput() {
+		// Failures of each source, in order: a burst across every split
+		// point, a slow trickle that never fills a window, and one that does
+		int[][] times = {
+				{10, 20, 30, 40, 50},
+				{0, 400, 800, 1200, 1600, 2000},
+				{0, 1000, 1100, 1150, 5000}
+		};
+		String expected = flagged(record(times, 0, Integer.MAX_VALUE));
+		assertEquals("a=5@30;c=5@1150;", expected);
+
+		for (int split = 0; split <= 6; split++) {
+			FailureWindows earlier = record(times, 0, split);
+			earlier.merge(record(times, split, Integer.MAX_VALUE));
+			assertEquals(expected, flagged(earlier), "split after " + split);
+		}
+	}
+
+	@Test
+	void onlyTimestampedDetectionsKeepTheirIdAcrossWindows() {
+		DetectionRule rule = Config.getDetectionRules().get(0);
+		Instant beforeMidnight = Instant.parse("2026-03-01T23:59:00Z");
+		Instant afterMidnight = beforeMidnight.plus(2, ChronoUnit.MINUTES);
+
+		// A line's own time gives the same ID whenever the log is analysed
+		int scanTime = 3_600;
+		assertEquals(id(rule, LogAnalyzer.detectedAt(scanTime, beforeMidnight)),
+				id(rule, LogAnalyzer.detectedAt(scanTime, afterMidnight)));
+
+		// Without one, the analysis time decides, and a new window means a new ID
+		assertEquals(beforeMidnight, LogAnalyzer.detectedAt(0, beforeMidnight));
+		assertNotEquals(id(rule, LogAnalyzer.detectedAt(0, beforeMidnight)),
+				id(rule, LogAnalyzer.detectedAt(0, afterMidnight)));
+		assertEquals(id(rule, LogAnalyzer.detectedAt(0, beforeMidnight)),
+				id(rule, LogAnalyzer.detectedAt(0, beforeMidnight.minus(2, ChronoUnit.HOURS))));
+	}
+
+	private static String id(DetectionRule rule, Instant detectedAt) {
+		return LogAnalyzer.incidentId(rule, "10.0.0.1", LogAnalyzer.dedupWindow(detectedAt));
+	}
+
+	private static FailureWindows record(int[][] times, int from, int to) {
+		FailureWindows windows = new FailureWindows(3, 300);
+		for (int source = 0; source < times.length; source++) {
+			for (int i = from; i < Math.min(to, times[source].length); i++) {
+				windows.recordText(String.valueOf((char) ('a' + source)), times[source][i]);
+			}
+		}
+		return windows;
+	}
+
+	private static String flagged(FailureWindows windows) {
+		StringBuilder flagged = new StringBuilder();
+		windows.forEachFlagged((source, attempts, flaggedAt) ->
+				flagged.append(source).append('=').append(attempts).append('@').append(flaggedAt).append(';'));
+		return flagged.toString();
+	}
+
+	private static List<String> describe(List<Incident> incidents) {
+		List<String> described = new ArrayList<>();
+		for (Incident incident : incidents) {
+			described.add(incident.getIncidentId() + " " + incident.getIpAddress() + " " + incident.getIncidentType()
+					+ " " + incident.getFailedAttempts() + " " + incident.getSeverity());
+		}
+		described.sort(null);
+		return described;
+	}
+}
@@ -0,0 +1,110 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MerkleTreeTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void streamingRootMatchesRfc6962Definition() {
+		assertArrayEquals(MerkleTree.sha256().digest(), new MerkleTree.Builder().root());
+
+		for (int count = 1; count <= 40; count++) {
+			List<byte[]> leaves = leaves(count);
+			MerkleTree.Builder builder = new MerkleTree.Builder();
+			leaves.forEach(builder::add);
+			assertArrayEquals(treeHash(leaves, 0, count), builder.root(), count + " leaves");
+		}
+	}
+
+	@Test
+	void inclusionProofVerifiesEveryLeafAndNothingElse() {
+		for (int count = 1; count <= 40; count++) {
+			List<byte[]> leaves = leaves(count + 1);
+			byte[] root = treeHash(leaves, 0, count);
+			byte[] grownRoot = treeHash(leaves, 0, count + 1);
+			for (int index = 0; index < count; index++) {
+				List<byte[]> path = auditPath(leaves, index, count);
+				assertTrue(MerkleTree.verify(leaves.get(index), index, count, path, root), index + " of " + count);
+
+				int other = (index + 1) % count;
+				if (other != index) {
+					assertFalse(MerkleTree.verify(leaves.get(other), index, count, path, root));
+					assertFalse(MerkleTree.verify(leaves.get(index), other, count, path, root));
+				}
+				// A proof only holds for the tree it was made from
+				assertFalse(MerkleTree.verify(leaves.get(index), index, count + 1, path, grownRoot));
+				assertFalse(MerkleTree.verify(leaves.get(index), index, count, path, grownRoot));
+			}
+		}
+	}
+
+	@Test
+	void reportProofsVerifyUntilTheReportIsTampered() throws Exception {
+		List<Incident> incidents = new ArrayList<>();
+		for (int i = 0; i < 13; i++) {
+			incidents.add(new Incident("INC-" + i, "10.0.0." + i, "BRUTE_FORCE", 5 + i, "HIGH", null));
+		}
+		Path report = Path.of(new ReportGenerator(dir.toString()).generate(incidents, "alice"));
+
+		for (Incident incident : incidents) {
+			EvidenceProof proof = EvidenceVerifier.prove(report, incident.getIncidentId());
+			assertEquals(13, proof.getLeafCount());
+			assertTrue(EvidenceVerifier.verify(proof, proof.getMerkleRoot()));
+		}
+		assertEquals(EvidenceAuditResult.Status.VALID, EvidenceVerifier.audit(report).getStatus());
+
+		// Records live in the chunk files the report lists
+		String trustedRoot = EvidenceVerifier.prove(report, "INC-7").getMerkleRoot();
+		try (Stream<Path> files = Files.walk(dir)) {
+			for (Path chunk : files.filter(file -> Files.isRegularFile(file) && !file.equals(report)).toList()) {
+				Files.writeString(chunk, Files.readString(chunk).replace("\"10.0.0.7\"", "\"10.0.0.8\""));
+			}
+		}
+		// Every proof from the altered report misses the sealed root, not just the altered record's
+		for (Incident incident : incidents) {
+			assertFalse(EvidenceVerifier.verify(EvidenceVerifier.prove(report, incident.getIncidentId()), trustedRoot));
+		}
+		assertEquals(EvidenceAuditResult.Status.TAMPERED, EvidenceVerifier.audit(report).getStatus());
+	}
+
+	/** MTH from RFC 6962, section 2.1, computed recursively. */
+	private static byte[] treeHash(List<byte[]> leaves, int from, int to) {
+		if (to - from == 1) {
+			return leaves.get(from);
+		}
+		int split = Integer.highestOneBit(to - from - 1);
+		return MerkleTree.nodeHash(treeHash(leaves, from, from + split), treeHash(leaves, from + split, to));
+	}
+
+	private static List<byte[]> auditPath(List<byte[]> leaves, long index, long count) {
+		List<byte[]> path = new ArrayList<>();
+		for (long[] range : MerkleTree.auditPathRanges(index, count)) {
+			path.add(treeHash(leaves, (int) range[0], (int) range[1]));
+		}
+		return path;
+	}
+
+	private static List<byte[]> leaves(int count) {
+		List<byte[]> leaves = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			leaves.add(MerkleTree.leafHash(("record " + i).getBytes(StandardCharsets.UTF_8)));
+		}
+		return leaves;
+	}
+}
@@ -0,0 +1,173 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelSegmentCipherTest {
+
+	private static final int SEGMENT_SIZE = SegmentedCipherOutputStream.DEFAULT_SEGMENT_SIZE;
+	private static final int WINDOW = 3;
+
+	private final SecretKey key = new SecretKeySpec(random(32), "AES");
+	private final byte[] salt = random(KeyManager.SALT_LENGTH);
+	private final Function<byte[], SecretKey> keys = stored -> key;
+	private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+	@TempDir
+	Path dir;
+
+	@AfterEach
+	void stopPool() {
+		pool.shutdown();
+	}
+
+	@Test
+	void roundTripsFilesSpanningSeveralWindows() throws IOException {
+		// Eleven full segments and a short one: four windows of three
+		byte[] plain = lines(11 * SEGMENT_SIZE + 123);
+		for (SegmentCodec codec : SegmentCodec.values()) {
+			assertArrayEquals(plain, decryptParallel(encryptParallel(plain, codec)), codec.name());
+		}
+		assertArrayEquals(new byte[0], decryptParallel(encryptParallel(new byte[0], SegmentCodec.NONE)));
+	}
+
+	@Test
+	void readsTheSameFormatAsTheStreamingCipher() throws IOException {
+		byte[] plain = lines(5 * SEGMENT_SIZE + 7);
+		String text = new String(plain, StandardCharsets.UTF_8);
+
+		// Parallel writer, streaming and random-access readers
+		Path parallel = encryptParallel(plain, SegmentCodec.DEFLATE_FAST);
+		try (InputStream in = new SegmentedCipherInputStream(Files.newInputStream(parallel), keys)) {
+			assertArrayEquals(plain, in.readAllBytes());
+		}
+		try (SegmentedArtifactReader reader = new SegmentedArtifactReader(parallel, keys)) {
+			assertEquals(plain.length, reader.getPlainBytes());
+			assertEquals(text.chars().filter(c -> c == '\n').count(), reader.getLineCount());
+			assertEquals(6, reader.getSegmentCount());
+			byte[] expected = new byte[2 * SEGMENT_SIZE];
+			System.arraycopy(plain, SEGMENT_SIZE - 10, expected, 0, expected.length);
+			assertArrayEquals(expected, reader.readBytes(SEGMENT_SIZE - 10, expected.length));
+		}
+
+		// Streaming writer, parallel reader
+		Path streamed = dir.resolve("streamed.enc");
+		try (OutputStream out = new SegmentedCipherOutputStream(
+				Files.newOutputStream(streamed), key, salt, SegmentCodec.DEFLATE, SEGMENT_SIZE)) {
+			out.write(plain);
+		}
+		assertArrayEquals(plain, decryptParallel(streamed));
+	}
+
+	@Test
+	void failedDecryptLeavesNoOutput() throws IOException {
+		Path sealed = encryptParallel(lines(4 * SEGMENT_SIZE), SegmentCodec.NONE);
+		Path output = dir.resolve("wrong-key.txt");
+		SecretKey wrong = new SecretKeySpec(random(32), "AES");
+
+		assertThrows(IOException.class,
+				() -> ParallelSegmentCipher.decrypt(sealed, output, stored -> wrong, pool, WINDOW));
+		assertFalse(Files.exists(output));
+	}
+
+	@Test
+	void vaultRoundTripsAndStillReadsUnindexedFiles() throws IOException {
+		Vault vault = new Vault();
+		byte[] plain = lines(3 * SEGMENT_SIZE + 99);
+		Path file = dir.resolve("evidence.json");
+		Files.write(file, plain);
+
+		String sealed = vault.encryptFile(file.toString(), "correct horse");
+		assertArrayEquals(plain, Files.readAllBytes(Path.of(vault.decryptFile(sealed, "correct horse"))));
+
+		// Vault files from before the segment index were version 2
+		Path legacy = dir.resolve("legacy.enc");
+		byte[] legacySalt = random(KeyManager.SALT_LENGTH);
+		Files.write(legacy, versionTwo(plain, KeyManager.shared().deriveKey("correct horse", legacySalt), legacySalt));
+		assertArrayEquals(plain, Files.readAllBytes(Path.of(vault.decryptFile(legacy.toString(), "correct horse"))));
+		assertThrows(RuntimeException.class, () -> vault.decryptFile(legacy.toString(), "wrong horse"));
+	}
+
+	private Path encryptParallel(byte[] plain, SegmentCodec codec) throws IOException {
+		Path input = Files.createTempFile(dir, "plain", ".txt");
+		Files.write(input, plain);
+		Path output = Files.createTempFile(dir, "sealed", ".enc");
+		ParallelSegmentCipher.encrypt(input, output, key, salt, codec, pool, WINDOW);
+		return output;
+	}
+
+	private byte[] decryptParallel(Path sealed) throws IOException {
+		Path output = Files.createTempFile(dir, "opened", ".txt");
+		ParallelSegmentCipher.decrypt(sealed, output, keys, pool, WINDOW);
+		return Files.readAllBytes(output);
+	}
+
+	/**
+	 * A version 2 file as the streaming writer made it: a header without a
+	 * codec byte, uncompressed segments and no index or footer.
+	 */
+	private static byte[] versionTwo(byte[] plain, SecretKey key, byte[] salt) throws IOException {
+		int segmentSize = 1024;
+		byte[] noncePrefix = random(SegmentedCipherOutputStream.NONCE_PREFIX_LENGTH);
+		byte[] header = ByteBuffer.allocate(SegmentedCipherOutputStream.headerLength(2))
+				.put(SegmentedCipherOutputStream.MAGIC)
+				.put((byte) 2)
+				.putInt(segmentSize)
+				.put(salt)
+				.put(noncePrefix)
+				.array();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(header);
+		byte[] sealed = new byte[segmentSize + SegmentedCipherOutputStream.TAG_LENGTH];
+		int segments = Math.max(1, (plain.length + segmentSize - 1) / segmentSize);
+		for (int s = 0; s < segments; s++) {
+			int length = Math.min(segmentSize, plain.length - s * segmentSize);
+			byte[] input = new byte[length];
+			System.arraycopy(plain, s * segmentSize, input, 0, length);
+			int frame = SegmentedCipherOutputStream.sealSegment(key, header, SegmentCodec.NONE, s,
+					s == segments - 1, input, length, new byte[length], sealed, 0);
+			out.write(ByteBuffer.allocate(4).putInt(frame).array());
+			out.write(sealed, 0, frame & SegmentedCipherOutputStream.LENGTH_MASK);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] lines(int size) {
+		byte[] bytes = new byte[size];
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; lines.length() < size; i++) {
+			lines.append("Mar  3 10:00:").append(i % 60).append(" web-01 sshd: failure ").append(i).append('\n');
+		}
+		System.arraycopy(lines.toString().getBytes(StandardCharsets.UTF_8), 0, bytes, 0, size);
+		return bytes;
+	}
+
+	private static byte[] random(int length) {
+		byte[] bytes = new byte[length];
+		new SecureRandom().nextBytes(bytes);
+		return bytes;
+	}
+}
@@ -1,11 +1,24 @@
 package com.securelogx.securelogx_backend;
 
+import java.nio.file.Path;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 @SpringBootTest
 class SecurelogxBackendApplicationTests {
 
+	@TempDir
+	static Path reports;
+
+	@DynamicPropertySource
+	static void reportsDir(DynamicPropertyRegistry registry) {
+		registry.add("securelogx.reports.dir", () -> reports.toString());
+	}
+
 	@Test
 	void contextLoads() {
 	}
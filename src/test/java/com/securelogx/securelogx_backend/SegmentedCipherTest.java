@@ -0,0 +1,214 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentedCipherTest {
+
+	private static final int SEGMENT_SIZE = 1024;
+	private static final int FRAME_LENGTH = 4 + SEGMENT_SIZE + SegmentedCipherOutputStream.TAG_LENGTH;
+
+	private final SecretKey key = new SecretKeySpec(random(32), "AES");
+	private final byte[] salt = random(KeyManager.SALT_LENGTH);
+	private final Function<byte[], SecretKey> keys = stored -> key;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void roundTripsWithEveryCodec() throws IOException {
+		byte[] plain = lines(2_000);
+		for (SegmentCodec codec : SegmentCodec.values()) {
+			assertArrayEquals(plain, decrypt(encrypt(plain, codec)), codec.name());
+		}
+		assertArrayEquals(new byte[0], decrypt(encrypt(new byte[0], SegmentCodec.NONE)));
+	}
+
+	@Test
+	void rejectsTruncatedArtifacts() throws IOException {
+		byte[] sealed = encrypt(lines(500), SegmentCodec.NONE);
+		int header = SegmentedCipherOutputStream.HEADER_LENGTH;
+
+		// At a segment boundary, inside a segment, and without the index
+		for (int length : new int[]{header + 2 * FRAME_LENGTH, header + FRAME_LENGTH + 100, sealed.length - 12}) {
+			byte[] truncated = Arrays.copyOf(sealed, length);
+			assertThrows(IOException.class, () -> decrypt(truncated), "length " + length);
+
+			Path artifact = dir.resolve("truncated-" + length + ".enc");
+			Files.write(artifact, truncated);
+			assertThrows(IOException.class, () -> new SegmentedArtifactReader(artifact, keys).close());
+		}
+	}
+
+	@Test
+	void rejectsReorderedSegments() throws IOException {
+		byte[] sealed = encrypt(lines(500), SegmentCodec.NONE);
+		int first = SegmentedCipherOutputStream.HEADER_LENGTH;
+		byte[] swapped = sealed.clone();
+		System.arraycopy(sealed, first, swapped, first + FRAME_LENGTH, FRAME_LENGTH);
+		System.arraycopy(sealed, first + FRAME_LENGTH, swapped, first, FRAME_LENGTH);
+
+		IOException failure = assertThrows(IOException.class, () -> decrypt(swapped));
+		assertEquals("Segment 0 failed authentication", failure.getMessage());
+
+		Path artifact = dir.resolve("swapped.enc");
+		Files.write(artifact, swapped);
+		try (SegmentedArtifactReader reader = new SegmentedArtifactReader(artifact, keys)) {
+			assertThrows(IOException.class, () -> reader.readBytes(0, 10));
+		}
+	}
+
+	@Test
+	void readsByteAndLineRangesOfOnlyTheSegmentsTheyTouch() throws IOException {
+		byte[] plain = lines(2_000);
+		Path artifact = dir.resolve("report.enc");
+		Files.write(artifact, encrypt(plain, SegmentCodec.DEFLATE_FAST));
+		String text = new String(plain, StandardCharsets.UTF_8);
+		String[] lines = text.split("(?<=\n)");
+
+		try (SegmentedArtifactReader reader = new SegmentedArtifactReader(artifact, keys)) {
+			assertEquals(plain.length, reader.getPlainBytes());
+			assertEquals(lines.length, reader.getLineCount());
+			assertEquals((plain.length + SEGMENT_SIZE - 1) / SEGMENT_SIZE, reader.getSegmentCount());
+
+			for (long offset : new long[]{0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, 5 * SEGMENT_SIZE + 17, plain.length - 3}) {
+				int limit = 3 * SEGMENT_SIZE;
+				byte[] expected = Arrays.copyOfRange(plain, (int) offset, (int) Math.min(plain.length, offset + limit));
+				assertArrayEquals(expected, reader.readBytes(offset, limit), "offset " + offset);
+			}
+			assertEquals(0, reader.readBytes(plain.length, 10).length);
+
+			for (int start : new int[]{0, 1, 37, 999, lines.length - 2}) {
+				String expected = String.join("", Arrays.copyOfRange(lines, start, Math.min(lines.length, start + 25)));
+				assertEquals(expected, new String(reader.readLines(start, 25, Integer.MAX_VALUE), StandardCharsets.UTF_8));
+			}
+			assertEquals(lines[10].substring(0, 5), new String(reader.readLines(10, 3, 5), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void sealsEveryArtifactWithItsOwnKey() throws IOException {
+		byte[] plain = lines(100);
+		byte[] first = encrypt(plain, SegmentCodec.NONE);
+		byte[] second = encrypt(plain, SegmentCodec.NONE);
+		int header = SegmentedCipherOutputStream.HEADER_LENGTH;
+
+		// Same password key and salt, but a different artifact salt and subkey
+		assertArrayEquals(Arrays.copyOf(first, SegmentedCipherOutputStream.ARTIFACT_SALT_OFFSET),
+				Arrays.copyOf(second, SegmentedCipherOutputStream.ARTIFACT_SALT_OFFSET));
+		assertFalse(Arrays.equals(Arrays.copyOf(first, header - SegmentedCipherOutputStream.NONCE_PREFIX_LENGTH),
+				Arrays.copyOf(second, header - SegmentedCipherOutputStream.NONCE_PREFIX_LENGTH)));
+		byte[] firstHeader = Arrays.copyOf(first, header);
+		assertFalse(Arrays.equals(SegmentedCipherOutputStream.sealingKey(key, firstHeader).getEncoded(),
+				SegmentedCipherOutputStream.sealingKey(key, Arrays.copyOf(second, header)).getEncoded()));
+
+		// The password key alone does not open a segment
+		int frame = ByteBuffer.wrap(first, header, 4).getInt();
+		byte[] sealed = Arrays.copyOfRange(first, header + 4, header + 4 + (frame & SegmentedCipherOutputStream.LENGTH_MASK));
+		byte[] scratch = new byte[SEGMENT_SIZE + SegmentedCipherOutputStream.TAG_LENGTH];
+		assertThrows(IOException.class, () -> SegmentedCipherInputStream.openSegment(
+				key, firstHeader, SEGMENT_SIZE, 0, frame, sealed, scratch.clone(), scratch.clone()));
+	}
+
+	@Test
+	void readsVersionFourArtifactsSealedWithThePasswordKey() throws IOException {
+		byte[] plain = lines(2_000);
+		Path artifact = dir.resolve("version-4.enc");
+		Files.write(artifact, versionFour(plain));
+
+		assertArrayEquals(plain, decrypt(Files.readAllBytes(artifact)));
+		try (SegmentedArtifactReader reader = new SegmentedArtifactReader(artifact, keys)) {
+			assertEquals(plain.length, reader.getPlainBytes());
+			assertArrayEquals(Arrays.copyOfRange(plain, SEGMENT_SIZE - 5, SEGMENT_SIZE + 5),
+					reader.readBytes(SEGMENT_SIZE - 5, 10));
+		}
+	}
+
+	private byte[] encrypt(byte[] plain, SegmentCodec codec) throws IOException {
+		ByteArrayOutputStream sealed = new ByteArrayOutputStream();
+		try (SegmentedCipherOutputStream out = new SegmentedCipherOutputStream(sealed, key, salt, codec, SEGMENT_SIZE)) {
+			// Uneven writes, so segments are filled across calls
+			for (int at = 0; at < plain.length; at += 777) {
+				out.write(plain, at, Math.min(777, plain.length - at));
+			}
+		}
+		return sealed.toByteArray();
+	}
+
+	private byte[] decrypt(byte[] sealed) throws IOException {
+		try (InputStream in = new SegmentedCipherInputStream(new ByteArrayInputStream(sealed), keys)) {
+			return in.readAllBytes();
+		}
+	}
+
+	/** A version 4 artifact: a codec byte and an index, but no artifact salt. */
+	private byte[] versionFour(byte[] plain) throws IOException {
+		byte[] header = ByteBuffer.allocate(SegmentedCipherOutputStream.headerLength(4))
+				.put(SegmentedCipherOutputStream.MAGIC)
+				.put((byte) 4)
+				.put((byte) SegmentCodec.DEFLATE.getId())
+				.putInt(SEGMENT_SIZE)
+				.put(salt)
+				.put(random(SegmentedCipherOutputStream.NONCE_PREFIX_LENGTH))
+				.array();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(header);
+		int segments = (plain.length + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+		long[] positions = new long[segments];
+		long[] linesBefore = new long[segments];
+		long lines = 0;
+		byte[] sealed = new byte[SEGMENT_SIZE + SegmentedCipherOutputStream.TAG_LENGTH];
+		for (int s = 0; s < segments; s++) {
+			int length = Math.min(SEGMENT_SIZE, plain.length - s * SEGMENT_SIZE);
+			byte[] input = Arrays.copyOfRange(plain, s * SEGMENT_SIZE, s * SEGMENT_SIZE + length);
+			positions[s] = out.size();
+			linesBefore[s] = lines;
+			for (byte b : input) {
+				lines += b == '\n' ? 1 : 0;
+			}
+			int frame = SegmentedCipherOutputStream.sealSegment(key, header, SegmentCodec.DEFLATE, s,
+					s == segments - 1, input, length, new byte[length], sealed, 0);
+			out.write(ByteBuffer.allocate(4).putInt(frame).array());
+			out.write(sealed, 0, frame & SegmentedCipherOutputStream.LENGTH_MASK);
+		}
+		out.write(SegmentedCipherOutputStream.trailer(key, header, out.size(), segments, plain.length, lines,
+				positions, linesBefore));
+		return out.toByteArray();
+	}
+
+	private static byte[] lines(int count) {
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			lines.append("Mar  3 10:00:").append(i % 60).append(" web-01 sshd: line ").append(i)
+					.append(" ".repeat(i % 13)).append('\n');
+		}
+		return lines.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] random(int length) {
+		byte[] bytes = new byte[length];
+		new SecureRandom().nextBytes(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,154 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TailStateStoreTest {
+
+	private static final String PASSWORD = "correct horse";
+
+	@TempDir
+	Path dir;
+
+	private Path log;
+	private SecureLogXService service;
+
+	@BeforeEach
+	void startService() {
+		log = dir.resolve("auth.log");
+		service = new SecureLogXService(dir.resolve("reports").toString());
+	}
+
+	@AfterEach
+	void stopService() throws IOException {
+		service.shutdown();
+	}
+
+	@Test
+	void resumedRunsMatchAFullScan() throws IOException {
+		// The first run ends inside a line that is still being written
+		String lines = failures("10.0.0.", 0, 400);
+		int cut = lines.indexOf('\n', lines.length() / 3) + 20;
+		Files.writeString(log, lines.substring(0, cut));
+		assertEquals(cut, analyze().getBytesTotal());
+
+		long resumeAt = tailState().offset;
+		assertTrue(resumeAt < cut);
+		Files.writeString(log, lines.substring(cut), StandardOpenOption.APPEND);
+		AnalysisProgress progress = new AnalysisProgress();
+		Collection<Incident> resumed = service.analyzeAndReturnIncidents(log.toString(), PASSWORD, true, progress);
+
+		assertEquals(lines.length() - resumeAt, progress.getBytesTotal());
+		assertFalse(resumed.isEmpty());
+		assertEquals(fullScan(), describe(resumed));
+	}
+
+	@Test
+	void copytruncateForcesAFullScan() throws IOException {
+		Files.writeString(log, failures("10.0.0.", 0, 400));
+		analyze();
+
+		// Truncated in place and refilled with less than before
+		try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+			channel.truncate(0);
+		}
+		Files.writeString(log, failures("10.9.0.", 0, 100), StandardOpenOption.APPEND);
+		assertFallsBackToAFullScan();
+	}
+
+	@Test
+	void replacedFileForcesAFullScan() throws IOException {
+		String lines = failures("10.0.0.", 0, 200);
+		Files.writeString(log, lines);
+		analyze();
+
+		// Same head and longer, but a new inode, as logrotate's create mode leaves it
+		Path rotated = dir.resolve("auth.log.new");
+		Files.writeString(rotated, lines + failures("10.0.0.", 200, 400));
+		Files.move(rotated, log, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		assertFallsBackToAFullScan();
+	}
+
+	@Test
+	void rewrittenHeadForcesAFullScan() throws IOException {
+		Files.writeString(log, failures("10.0.0.", 0, 200));
+		analyze();
+
+		// Same inode, no shorter, but the first bytes changed
+		byte[] head = "Mar  1 00:00:00 web-02".getBytes(StandardCharsets.US_ASCII);
+		try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(head), 0);
+		}
+		Files.writeString(log, failures("10.0.0.", 200, 300), StandardOpenOption.APPEND);
+		assertFallsBackToAFullScan();
+	}
+
+	private void assertFallsBackToAFullScan() throws IOException {
+		assertNull(new TailStateStore(stateFile()).findResumable(log));
+		AnalysisProgress progress = new AnalysisProgress();
+		Collection<Incident> incidents = service.analyzeAndReturnIncidents(log.toString(), PASSWORD, true, progress);
+		assertEquals(Files.size(log), progress.getBytesTotal());
+		assertEquals(fullScan(), describe(incidents));
+	}
+
+	private AnalysisProgress analyze() {
+		AnalysisProgress progress = new AnalysisProgress();
+		service.analyzeAndReturnIncidents(log.toString(), PASSWORD, true, progress);
+		return progress;
+	}
+
+	private TailStateStore.TailState tailState() throws IOException {
+		TailStateStore.TailState state = new TailStateStore(stateFile()).findResumable(log);
+		assertNotNull(state);
+		return state;
+	}
+
+	private Path stateFile() {
+		return dir.resolve("reports").resolve("tail-state.json");
+	}
+
+	private List<String> fullScan() {
+		return describe(new LogAnalyzer().analyze(new LogReader(), log.toString()));
+	}
+
+	/** Failed logins from 20 sources, one line a second from {@code from}. */
+	private static String failures(String network, int from, int to) {
+		StringBuilder lines = new StringBuilder();
+		for (int second = from; second < to; second++) {
+			int host = second * 7 % 20;
+			lines.append(String.format("Mar  1 %02d:%02d:%02d web-01 sshd[%d]: Failed password for root from %s%d port 22 ssh2%n",
+					second / 3600, second / 60 % 60, second % 60, 1000 + host, network, host));
+		}
+		return lines.toString();
+	}
+
+	private static List<String> describe(Collection<Incident> incidents) {
+		List<String> described = new ArrayList<>();
+		for (Incident incident : incidents) {
+			described.add(incident.getIncidentId() + " " + incident.getIpAddress() + " " + incident.getIncidentType()
+					+ " " + incident.getFailedAttempts() + " " + incident.getSeverity());
+		}
+		described.sort(null);
+		return described;
+	}
+}
@@ -0,0 +1,109 @@
+package com.securelogx.securelogx_backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.ref.Reference;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Heap and time taken by packed timelines against a plain list of
+ * {@link Incident.TimelineEvent} objects, the way timelines used to be
+ * kept. Off by default; run it with
+ * {@code mvn test -Dtest=TimelineFootprintTest -Dsecurelogx.bench=true}.
+ */
+@EnabledIfSystemProperty(named = "securelogx.bench", matches = "true")
+class TimelineFootprintTest {
+
+	private static final int INCIDENTS = 2_000;
+	private static final int[] EVENTS = {8, 64, 512};
+
+	@Test
+	void printRetainedBytesPerEvent() {
+		System.out.printf("%8s %14s %14s %14s %14s%n", "events", "list B/event", "packed B/event", "append ns/ev", "read ns/ev");
+		for (int events : EVENTS) {
+			// Warm up both paths before measuring
+			build(events);
+			buildLists(events);
+
+			long before = usedHeap();
+			List<List<Incident.TimelineEvent>> lists = buildLists(events);
+			long listBytes = usedHeap() - before;
+			Reference.reachabilityFence(lists);
+			lists = null;
+
+			before = usedHeap();
+			long started = System.nanoTime();
+			IncidentTimeline[] timelines = build(events);
+			long appendNanos = System.nanoTime() - started;
+			long packedBytes = usedHeap() - before;
+
+			started = System.nanoTime();
+			long read = 0;
+			for (IncidentTimeline timeline : timelines) {
+				for (Incident.TimelineEvent event : timeline.snapshot()) {
+					read += event.getNote() == null ? 0 : 1;
+				}
+			}
+			long readNanos = System.nanoTime() - started;
+			assertEquals((long) INCIDENTS * events, read);
+			Reference.reachabilityFence(timelines);
+
+			double total = (double) INCIDENTS * events;
+			System.out.printf("%8d %14.1f %14.1f %14.1f %14.1f%n", events,
+					listBytes / total, packedBytes / total, appendNanos / total, readNanos / total);
+		}
+	}
+
+	private static IncidentTimeline[] build(int events) {
+		IncidentTimeline[] timelines = new IncidentTimeline[INCIDENTS];
+		for (int i = 0; i < INCIDENTS; i++) {
+			IncidentTimeline timeline = new IncidentTimeline(Incident.IncidentStatus.OPEN);
+			for (int e = 0; e < events; e++) {
+				timeline.append(event(i, e));
+			}
+			timelines[i] = timeline;
+		}
+		return timelines;
+	}
+
+	private static List<List<Incident.TimelineEvent>> buildLists(int events) {
+		List<List<Incident.TimelineEvent>> lists = new ArrayList<>(INCIDENTS);
+		for (int i = 0; i < INCIDENTS; i++) {
+			List<Incident.TimelineEvent> list = new ArrayList<>();
+			for (int e = 0; e < events; e++) {
+				list.add(event(i, e));
+			}
+			lists.add(list);
+		}
+		return lists;
+	}
+
+	/** Mostly evidence reads with their own byte range, as the service records them. */
+	private static Incident.TimelineEvent event(int incident, int index) {
+		LocalDateTime at = LocalDateTime.of(2026, 3, 3, 10, 0).plusSeconds(index);
+		switch (index % 8) {
+			case 0:
+				return new Incident.TimelineEvent("INCIDENT_CREATED", null, "Incident detected by analysis engine", at);
+			case 1:
+				return new Incident.TimelineEvent("STATUS_CHANGED", "alice", "Status changed from OPEN to INVESTIGATING", at);
+			case 2:
+				return new Incident.TimelineEvent("ANALYST_NOTE", "alice", "Checked source " + incident, at);
+			default:
+				return new Incident.TimelineEvent("EVIDENCE_ACCESSED", "analyst-" + index % 5,
+						"Read bytes " + index * 65_536L + "-" + (index + 1) * 65_536L + " of report " + incident, at);
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}